@@ -0,0 +1,299 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Evolves a world while switching between two ways of holding it, whichever suits the world
+ * at the time: the sparse trie of tiles behind World, whose cost follows the tiles that change,
+ * and a dense grid of bits, whose cost follows the area of the rows with live cells but is much
+ * lower per cell. A dense soup is best held densely, the ash and escaping gliders it leaves
+ * behind are best held sparsely.
+ *
+ * Every samplingInterval generations the run is sampled for its density (the fraction of the
+ * cells of occupied tiles that are live), its fill (the fraction of the bounding box covered by
+ * occupied tiles) and its churn (births and deaths per live cell per generation, over the
+ * interval). Together they say how many of the tiles of the bounding box change each
+ * generation. The run moves to the dense grid when that is high, and back to the sparse trie
+ * when it falls well below the level that moved it. The gap between the two thresholds keeps
+ * a run near the boundary from switching back and forth. A grid whose buffers would take more
+ * words than allowed (a million each, unless set otherwise) is never made: the run stays sparse
+ * instead, and a run whose grid would have to grow beyond that to hold the next generation goes
+ * back to sparse at once.
+ *
+ * Switching converts one representation into the other without loss. Each switch is logged
+ * when it is made, and again once the interval after it has been timed, with how the time per
+ * generation compares with that of the interval before it.
+ */
+public class AdaptiveEvolution
+{
+    public enum Representation { SPARSE, DENSE }
+
+    // Creation Methods ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public static AdaptiveEvolution of(World world)
+    {
+        return new AdaptiveEvolution(world);
+    }
+
+    // Configuration //////////////////////////////////////////////////////////////////////////////////////////////
+
+    public AdaptiveEvolution samplingEvery(int generations)
+    {
+        if (generations < 1) throw new IllegalArgumentException("Must sample every 1 or more generations: " + generations);
+        samplingInterval = generations;
+        return this;
+    }
+
+    /**
+     * The most words each of the two buffers of a dense grid may take, margins included.
+     */
+    public AdaptiveEvolution limitingDenseGridsTo(long words)
+    {
+        if (words < 1) throw new IllegalArgumentException("Dense grids must be allowed 1 or more words: " + words);
+        maxDenseWords = words;
+        return this;
+    }
+
+    // Running ////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Evolves the world the given number of times, switching representation as it goes,
+     * and returns the last generation.
+     */
+    public World run(int generations)
+    {
+        for (int step = 0; step < generations; step++)
+        {
+            evolve();
+            generation++;
+            if (generation % samplingInterval == 0) sample();
+        }
+        return current();
+    }
+
+    public World current()
+    {
+        if (grid != null) world = grid.toWorld();
+        return world;
+    }
+
+    public int generation() { return generation; }
+
+    public Representation representation() { return grid == null ? Representation.SPARSE : Representation.DENSE; }
+
+    // Switches ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public List<Switch> switches() { return Collections.unmodifiableList(switches); }
+
+    public static final class Switch
+    {
+        /**
+         * The generation after which the representation changed.
+         */
+        public int generation() { return generation; }
+
+        public Representation from() { return from; }
+
+        public Representation to() { return to; }
+
+        public double density() { return density; }
+
+        public double fill() { return fill; }
+
+        public double churn() { return churn; }
+
+        public long conversionNanos() { return conversionNanos; }
+
+        public double nanosPerGenerationBefore() { return nanosPerGenerationBefore; }
+
+        /**
+         * NaN until the sampling interval after the switch has run its course.
+         */
+        public double nanosPerGenerationAfter() { return nanosPerGenerationAfter; }
+
+        /**
+         * How many times faster generations were evolved after the switch than before it.
+         */
+        public double speedUp() { return nanosPerGenerationBefore / nanosPerGenerationAfter; }
+
+        @Override
+        public String toString()
+        {
+            String switchMade = String.format("%s to %s after generation %d (density %.3f, fill %.3f, churn %.3f), converted in %d ns",
+                                              from, to, generation, density, fill, churn, conversionNanos);
+            return Double.isNaN(nanosPerGenerationAfter)
+                ? switchMade
+                : switchMade + String.format(": %.0f ns per generation before, %.0f after, %.2fx the speed",
+                                             nanosPerGenerationBefore, nanosPerGenerationAfter, speedUp());
+        }
+
+        private Switch(int generation, Representation from, Representation to, double density, double fill, double churn,
+                       long conversionNanos, double nanosPerGenerationBefore)
+        {
+            this.generation = generation;
+            this.from = from;
+            this.to = to;
+            this.density = density;
+            this.fill = fill;
+            this.churn = churn;
+            this.conversionNanos = conversionNanos;
+            this.nanosPerGenerationBefore = nanosPerGenerationBefore;
+        }
+
+        private final int generation;
+        private final Representation from;
+        private final Representation to;
+        private final double density;
+        private final double fill;
+        private final double churn;
+        private final long conversionNanos;
+        private final double nanosPerGenerationBefore;
+        private double nanosPerGenerationAfter = Double.NaN;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private ////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    // Member fields //////////////////////////////////////////////////////////////////////////////////////////////
+    private World world;                      // out of date while the grid is in use
+    private DenseGrid grid;                   // SPARSE_REPRESENTATION while the world is in use
+    private int generation;
+    private int samplingInterval = DEFAULT_SAMPLING_INTERVAL;
+    private long maxDenseWords = DEFAULT_MAX_DENSE_WORDS;
+    private long churnInInterval;
+    private int intervalStartGeneration;
+    private long intervalStartNanos = System.nanoTime();
+    private final List<Switch> switches = new ArrayList<>();
+    private Switch switchBeingTimed;
+
+    // Constructors ///////////////////////////////////////////////////////////////////////////////////////////////
+    private AdaptiveEvolution(World world)
+    {
+        this.world = world;
+    }
+
+    private void evolve()
+    {
+        if (grid != SPARSE_REPRESENTATION && grid.wordsToEvolve() > maxDenseWords)
+        {
+            double nanosPerGeneration = nanosPerGenerationInInterval();
+            finishTimingSwitch(nanosPerGeneration);
+            switchTo(Representation.SPARSE, new Measures(), nanosPerGeneration);
+            startInterval();
+        }
+
+        if (grid == SPARSE_REPRESENTATION)
+        {
+            world = world.evolve();
+            churnInInterval += world.births() + world.deaths();
+        }
+        else
+        {
+            grid.evolve();
+            churnInInterval += grid.births() + grid.deaths();
+        }
+    }
+
+    // Sampling ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void sample()
+    {
+        double nanosPerGeneration = nanosPerGenerationInInterval();
+        finishTimingSwitch(nanosPerGeneration);
+
+        Measures measures = new Measures();
+        Representation better = betterRepresentation(measures);
+        if (better != representation()) switchTo(better, measures, nanosPerGeneration);
+        startInterval();
+    }
+
+    private void finishTimingSwitch(double nanosPerGeneration)
+    {
+        if (switchBeingTimed == null) return;
+
+        switchBeingTimed.nanosPerGenerationAfter = nanosPerGeneration;
+        LOGGER.info("Switched " + switchBeingTimed);
+        switchBeingTimed = null;
+    }
+
+    /**
+     * The density, fill and churn of the run, over the generations since the interval started.
+     */
+    private final class Measures
+    {
+        Measures()
+        {
+            int population = grid == SPARSE_REPRESENTATION ? world.population() : grid.population();
+            int tiles = grid == SPARSE_REPRESENTATION ? world.cells().tileCount() : grid.tileCount();
+            int generations = Math.max(1, generation - intervalStartGeneration);
+            extent = grid == SPARSE_REPRESENTATION ? world.boundingBox() : grid.extent();
+
+            density = population == 0 ? 0 : (double) population / (tiles * TILE_AREA);
+            fill = population == 0 ? 0 : Math.min(1, (double) tiles * TILE_AREA / extent.area());
+            churn = population == 0 ? 0 : (double) churnInInterval / ((double) population * generations);
+        }
+
+        final BoundingBox extent;
+        final double density;
+        final double fill;
+        final double churn;
+    }
+
+    /**
+     * Density x fill x churn is the number of births and deaths per cell of the bounding box,
+     * which, times the area of a tile, bounds the fraction of the box's tiles that change each
+     * generation: the tiles the sparse trie works on, against all those the dense grid works on.
+     * A grid is only made if the words it would really take, margins included, are allowed.
+     */
+    private Representation betterRepresentation(Measures measures)
+    {
+        double changesPerTileOfBox = measures.density * measures.fill * measures.churn * TILE_AREA;
+        if (representation() == Representation.SPARSE)
+            return changesPerTileOfBox >= CHANGES_PER_TILE_TO_ENTER && DenseGrid.wordsFor(measures.extent) <= maxDenseWords
+                ? Representation.DENSE
+                : Representation.SPARSE;
+        return changesPerTileOfBox < CHANGES_PER_TILE_TO_LEAVE ? Representation.SPARSE : Representation.DENSE;
+    }
+
+    private double nanosPerGenerationInInterval()
+    {
+        return (double) (System.nanoTime() - intervalStartNanos) / Math.max(1, generation - intervalStartGeneration);
+    }
+
+    private void startInterval()
+    {
+        churnInInterval = 0;
+        intervalStartGeneration = generation;
+        intervalStartNanos = System.nanoTime();
+    }
+
+    private void switchTo(Representation representation, Measures measures, double nanosPerGeneration)
+    {
+        Representation from = representation();
+        long start = System.nanoTime();
+        if (representation == Representation.DENSE)
+            grid = DenseGrid.of(world);
+        else
+        {
+            world = grid.toWorld();
+            grid = SPARSE_REPRESENTATION;
+        }
+
+        switchBeingTimed = new Switch(generation, from, representation, measures.density, measures.fill, measures.churn,
+                                      System.nanoTime() - start, nanosPerGeneration);
+        switches.add(switchBeingTimed);
+        LOGGER.info("Switching " + switchBeingTimed);
+    }
+
+    // Constants //////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final Logger LOGGER = Logger.getLogger(AdaptiveEvolution.class.getName());
+    private static final DenseGrid SPARSE_REPRESENTATION = null;
+    private static final int DEFAULT_SAMPLING_INTERVAL = 32;
+    private static final double TILE_AREA = Tiles.SIZE * Tiles.SIZE;
+    private static final long DEFAULT_MAX_DENSE_WORDS = 1L << 20;
+    private static final double CHANGES_PER_TILE_TO_ENTER = 0.10;
+    private static final double CHANGES_PER_TILE_TO_LEAVE = 0.03;
+}
@@ -0,0 +1,57 @@
+/**
+ * The smallest rectangle holding a group of cells, given by its outermost rows and columns.
+ */
+final class BoundingBox
+{
+    static final BoundingBox NONE = new BoundingBox(Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE);
+
+    static BoundingBox of(int northMostRow, int southMostRow, int westMostColumn, int eastMostColumn)
+    {
+        return northMostRow > southMostRow ? NONE : new BoundingBox(northMostRow, southMostRow, westMostColumn, eastMostColumn);
+    }
+
+    /**
+     * The box of the locations within the given distance of this box.
+     */
+    BoundingBox grownBy(int distance)
+    {
+        return isEmpty() ? NONE : of(northMostRow - distance, southMostRow + distance, westMostColumn - distance, eastMostColumn + distance);
+    }
+
+    /**
+     * The cells of the given tile that lie within this box, as an occupancy word.
+     */
+    long maskOf(long tileKey)
+    {
+        return isEmpty() ? 0 : Tiles.maskOfRectangle(tileKey, northMostRow, westMostColumn, southMostRow, eastMostColumn);
+    }
+
+    /**
+     * The number of tiles the box overlaps.
+     */
+    long tileCount()
+    {
+        if (isEmpty()) return 0;
+
+        long tileRows = (southMostRow >> Tiles.SHIFT) - (northMostRow >> Tiles.SHIFT) + 1L;
+        long tileColumns = (eastMostColumn >> Tiles.SHIFT) - (westMostColumn >> Tiles.SHIFT) + 1L;
+        return tileRows * tileColumns;
+    }
+
+    boolean isEmpty() { return northMostRow > southMostRow; }
+
+    long area() { return isEmpty() ? 0 : ((long) southMostRow - northMostRow + 1) * ((long) eastMostColumn - westMostColumn + 1); }
+
+    final int northMostRow;
+    final int southMostRow;
+    final int westMostColumn;
+    final int eastMostColumn;
+
+    private BoundingBox(int northMostRow, int southMostRow, int westMostColumn, int eastMostColumn)
+    {
+        this.northMostRow = northMostRow;
+        this.southMostRow = southMostRow;
+        this.westMostColumn = westMostColumn;
+        this.eastMostColumn = eastMostColumn;
+    }
+}
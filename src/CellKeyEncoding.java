@@ -0,0 +1,66 @@
+import java.io.ByteArrayOutputStream;
+
+/**
+ * A compact byte encoding of sorted cell keys: the number of keys followed by the gap
+ * from each key to the one before it, as unsigned variable length integers. Neighbouring
+ * cells in a row differ by small gaps, which take a single byte each.
+ */
+final class CellKeyEncoding
+{
+    static void writeSorted(long[] sortedKeys, ByteArrayOutputStream out)
+    {
+        writeUnsigned(sortedKeys.length, out);
+        long previousKey = 0;
+        for (long key : sortedKeys)
+        {
+            writeUnsigned(key - previousKey, out);
+            previousKey = key;
+        }
+    }
+
+    static final class Reader
+    {
+        Reader(byte[] bytes)
+        {
+            this.bytes = bytes;
+        }
+
+        long[] readSorted()
+        {
+            long[] keys = new long[(int) readUnsigned()];
+            long previousKey = 0;
+            for (int index = 0; index < keys.length; index++)
+            {
+                previousKey += readUnsigned();
+                keys[index] = previousKey;
+            }
+            return keys;
+        }
+
+        private long readUnsigned()
+        {
+            long value = 0;
+            for (int shift = 0; ; shift += 7)
+            {
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+        }
+
+        private final byte[] bytes;
+        private int position;
+    }
+
+    private static void writeUnsigned(long value, ByteArrayOutputStream out)
+    {
+        while ((value & ~0x7FL) != 0)
+        {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private CellKeyEncoding() {}
+}
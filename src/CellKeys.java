@@ -0,0 +1,93 @@
+/**
+ * Packs the row and column of a location into a single long, so that a world's
+ * live cells can be held, sorted and compared as primitives rather than as Locations.
+ *
+ * Both halves are stored with their sign bit flipped, which makes the unsigned order
+ * of keys the same row-major order as Location.compareTo: north before south and,
+ * within a row, west before east.
+ */
+final class CellKeys
+{
+    static long keyOf(Location location)
+    {
+        return keyOf(location.row(), location.column());
+    }
+
+    static long keyOf(int row, int column)
+    {
+        return ((long) (row ^ Integer.MIN_VALUE) << 32) | ((column ^ Integer.MIN_VALUE) & LOW_HALF);
+    }
+
+    static int rowOf(long key) { return (int) (key >>> 32) ^ Integer.MIN_VALUE; }
+
+    static int columnOf(long key) { return (int) key ^ Integer.MIN_VALUE; }
+
+    static Location locationOf(long key)
+    {
+        return new Location(rowOf(key), columnOf(key));
+    }
+
+    /**
+     * A well mixed hash of a single key. Summing these gives a hash for a whole
+     * set of keys that does not depend on the order in which they are visited.
+     */
+    static int hashOf(long key)
+    {
+        long h = mix(key);
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Scrambles the bits of a key. The mix is a bijection, so distinct keys always
+     * have distinct mixes.
+     */
+    static long mix(long key)
+    {
+        long h = key;
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Sorts keys into row-major order with a least significant digit radix sort,
+     * skipping the passes for digits that all keys share (e.g. the high bytes of
+     * rows and columns that lie close to the origin).
+     */
+    static void sortRowMajor(long[] keys)
+    {
+        if (keys.length < 2) return;
+
+        long[] from = keys;
+        long[] to = new long[keys.length];
+        int[] offsets = new int[RADIX];
+
+        for (int shift = 0; shift < Long.SIZE; shift += DIGIT_BITS)
+        {
+            java.util.Arrays.fill(offsets, 0);
+            for (long key : from) offsets[digitOf(key, shift)]++;
+
+            if (offsets[digitOf(from[0], shift)] == from.length) continue;
+
+            for (int digit = 0, offset = 0; digit < RADIX; digit++)
+            {
+                int count = offsets[digit];
+                offsets[digit] = offset;
+                offset += count;
+            }
+            for (long key : from) to[offsets[digitOf(key, shift)]++] = key;
+
+            long[] swap = from; from = to; to = swap;
+        }
+
+        if (from != keys) System.arraycopy(from, 0, keys, 0, keys.length);
+    }
+
+    private static int digitOf(long key, int shift) { return (int) (key >>> shift) & (RADIX - 1); }
+
+    private CellKeys() {}
+
+    private static final long LOW_HALF = 0xFFFFFFFFL;
+    private static final int DIGIT_BITS = 8;
+    private static final int RADIX = 1 << DIGIT_BITS;
+}
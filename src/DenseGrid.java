@@ -0,0 +1,337 @@
+import java.util.Arrays;
+
+/**
+ * A world held as a dense grid of bits, one row of longs per row of cells and 64 cells to a
+ * long, with bit i of a word standing for the cell i columns east of the word's first column.
+ * Evolving costs a fixed amount per 64 cells of the rows that hold live cells, however few of
+ * them change, and involves no hashing or allocation: the next generation is written into a
+ * second grid of the same size and the two are swapped.
+ *
+ * Unlike a World, a grid is changed in place. It keeps a margin of dead cells around its live
+ * cells, at least a word wide, and is rebuilt around them with a fresh margin when they reach
+ * its first or last word or come within two rows of its edge. Its rows start on a multiple of
+ * 8 and its columns on a multiple of 64, so each row of a tile lies within one word.
+ */
+final class DenseGrid
+{
+    static DenseGrid of(World world)
+    {
+        DenseGrid grid = new DenseGrid(world.isEmpty() ? BoundingBox.of(0, 0, 0, 0) : world.boundingBox());
+        world.cells().forEachTile(grid::addTile);
+        grid.population = world.population();
+        grid.births = world.births();
+        grid.deaths = world.deaths();
+        return grid;
+    }
+
+    World toWorld()
+    {
+        long[] cellKeys = new long[population];
+        int count = 0;
+        for (int row = firstLiveRow; row <= lastLiveRow; row++)
+            for (int word = 0; word < wordsPerRow; word++)
+                for (long bits = cells[row * wordsPerRow + word]; bits != 0; bits &= bits - 1)
+                    cellKeys[count++] = CellKeys.keyOf(firstRow + row, firstColumn + (word << WORD_SHIFT) + Long.numberOfTrailingZeros(bits));
+        return World.withCellKeys(cellKeys).withBirthsAndDeaths(births, deaths);
+    }
+
+    // Evolving ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Replaces the cells of the grid with their next generation. Only the rows holding live
+     * cells and the rows either side of them are worked out.
+     */
+    void evolve()
+    {
+        births = 0;
+        deaths = 0;
+        if (population == 0) return;
+        if (liveCellsNearEdge()) regrow();
+
+        int fromRow = firstLiveRow - 1;
+        int toRow = lastLiveRow + 1;
+        for (int row = firstStaleRow; row <= lastStaleRow; row++)
+            if (row < fromRow || row > toRow) Arrays.fill(nextCells, row * wordsPerRow, (row + 1) * wordsPerRow, 0);
+
+        population = 0;
+        firstLiveRow = rows;
+        lastLiveRow = -1;
+        liveEdgeWords = 0;
+        for (int row = fromRow; row <= toRow; row++)
+            if (evolveRow(row))
+            {
+                if (lastLiveRow < 0) firstLiveRow = row;
+                lastLiveRow = row;
+            }
+
+        firstStaleRow = fromRow;
+        lastStaleRow = toRow;
+        long[] previousCells = cells;
+        cells = nextCells;
+        nextCells = previousCells;
+    }
+
+    // Statistics /////////////////////////////////////////////////////////////////////////////////////////////////
+
+    int population() { return population; }
+
+    int births() { return births; }
+
+    int deaths() { return deaths; }
+
+    /**
+     * The number of 8 x 8 tiles with live cells, as a World made of the same cells would hold.
+     */
+    int tileCount()
+    {
+        int tiles = 0;
+        for (int firstRowOfTiles = firstLiveRow & ~Tiles.LAST; firstRowOfTiles <= lastLiveRow; firstRowOfTiles += Tiles.SIZE)
+            for (int word = 0; word < wordsPerRow; word++)
+            {
+                long rowsOfTiles = 0;
+                for (int row = firstRowOfTiles; row < firstRowOfTiles + Tiles.SIZE; row++)
+                    rowsOfTiles |= cells[row * wordsPerRow + word];
+                tiles += Long.bitCount(lowBitOfEachNonZeroByte(rowsOfTiles));
+            }
+        return tiles;
+    }
+
+    BoundingBox extent()
+    {
+        int westMost = Integer.MAX_VALUE;
+        int eastMost = Integer.MIN_VALUE;
+        for (int row = firstLiveRow; row <= lastLiveRow; row++)
+        {
+            int start = row * wordsPerRow;
+            for (int word = 0; word < wordsPerRow && (word << WORD_SHIFT) < westMost; word++)
+                if (cells[start + word] != 0)
+                    westMost = Math.min(westMost, (word << WORD_SHIFT) + Long.numberOfTrailingZeros(cells[start + word]));
+            for (int word = wordsPerRow - 1; word >= 0 && (word << WORD_SHIFT) + WORD_LAST > eastMost; word--)
+                if (cells[start + word] != 0)
+                    eastMost = Math.max(eastMost, (word << WORD_SHIFT) + WORD_LAST - Long.numberOfLeadingZeros(cells[start + word]));
+        }
+        return population == 0
+            ? BoundingBox.NONE
+            : BoundingBox.of(firstRow + firstLiveRow, firstRow + lastLiveRow, firstColumn + westMost, firstColumn + eastMost);
+    }
+
+    /**
+     * The number of cells the grid has room for, live or dead, in each of its two buffers.
+     */
+    long area() { return (long) rows * wordsPerRow * Long.SIZE; }
+
+    // Sizes //////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The number of words in each buffer of a grid made to hold the given box.
+     */
+    static long wordsFor(BoundingBox extent)
+    {
+        return rowCountFor(extent) * wordCountFor(extent);
+    }
+
+    /**
+     * The number of words in each buffer once the next generation has been evolved,
+     * which is more than now if the grid must be rebuilt to make room for it.
+     */
+    long wordsToEvolve()
+    {
+        return population != 0 && liveCellsNearEdge() ? wordsFor(extent()) : (long) rows * wordsPerRow;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private ////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    // Member fields //////////////////////////////////////////////////////////////////////////////////////////////
+    private int firstRow;          // the row of the world that row 0 of the grid stands for
+    private int firstColumn;       // likewise for the first column
+    private int rows;
+    private int wordsPerRow;
+    private long[] cells;
+    private long[] nextCells;      // the generation before last, until it is overwritten
+    private int firstLiveRow;      // rows of the grid, rows and -1 when there are no live cells
+    private int lastLiveRow;
+    private int firstStaleRow;     // the rows of nextCells that may hold live cells
+    private int lastStaleRow;
+    private long liveEdgeWords;    // the live cells of the first and last word of each row, or'ed together
+    private int population;
+    private int births;
+    private int deaths;
+
+    // Constructors ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * An empty grid with room for the given box and a margin around it that grows with the box,
+     * so that a pattern that keeps growing causes fewer and fewer rebuilds. The margin above and
+     * below grows with the box's height and the margin either side with its width, so that a
+     * long thin pattern gets a long thin grid.
+     */
+    private DenseGrid(BoundingBox extent)
+    {
+        long words = wordsFor(extent);
+        if (words > MAX_WORDS) throw new IllegalArgumentException("Too many cells for a dense grid: " + words * Long.SIZE);
+
+        firstRow = (int) firstRowFor(extent);
+        firstColumn = (int) firstColumnFor(extent);
+        rows = (int) rowCountFor(extent);
+        wordsPerRow = (int) wordCountFor(extent);
+        cells = new long[rows * wordsPerRow];
+        nextCells = new long[rows * wordsPerRow];
+        firstLiveRow = rows;
+        lastLiveRow = -1;
+        firstStaleRow = rows;
+        lastStaleRow = -1;
+    }
+
+    private static long rowMarginFor(BoundingBox extent)
+    {
+        return MARGIN + ((long) extent.southMostRow - extent.northMostRow) / 4;
+    }
+
+    private static long columnMarginFor(BoundingBox extent)
+    {
+        return MARGIN + ((long) extent.eastMostColumn - extent.westMostColumn) / 4;
+    }
+
+    private static long firstRowFor(BoundingBox extent)
+    {
+        return (extent.northMostRow - rowMarginFor(extent)) & ~Tiles.LAST;
+    }
+
+    private static long firstColumnFor(BoundingBox extent)
+    {
+        return (extent.westMostColumn - columnMarginFor(extent)) & ~WORD_LAST;
+    }
+
+    private static long rowCountFor(BoundingBox extent)
+    {
+        return ((extent.southMostRow + rowMarginFor(extent)) | Tiles.LAST) - firstRowFor(extent) + 1;
+    }
+
+    private static long wordCountFor(BoundingBox extent)
+    {
+        return (((extent.eastMostColumn + columnMarginFor(extent)) | WORD_LAST) - firstColumnFor(extent) + 1) >>> WORD_SHIFT;
+    }
+
+    private void addTile(long tileKey, long occupancy)
+    {
+        int firstRowOfTile = (CellKeys.rowOf(tileKey) << Tiles.SHIFT) - firstRow;
+        int column = (CellKeys.columnOf(tileKey) << Tiles.SHIFT) - firstColumn;
+        for (int rowInTile = 0; rowInTile < Tiles.SIZE; rowInTile++)
+        {
+            long rowOfTile = (occupancy >>> (rowInTile << Tiles.SHIFT)) & ROW_OF_TILE;
+            if (rowOfTile == 0) continue;
+
+            int row = firstRowOfTile + rowInTile;
+            int word = column >> WORD_SHIFT;
+            cells[row * wordsPerRow + word] |= rowOfTile << (column & WORD_LAST);
+            if (word == 0 || word == wordsPerRow - 1) liveEdgeWords |= rowOfTile;
+            firstLiveRow = Math.min(firstLiveRow, row);
+            lastLiveRow = Math.max(lastLiveRow, row);
+        }
+    }
+
+    // Next Generation of a Row ///////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Works out the next generation of a row into nextCells, a word at a time, keeping a
+     * window of three words of each of the row and the rows north and south of it. Returns
+     * whether the row holds live cells in the next generation.
+     */
+    private boolean evolveRow(int row)
+    {
+        int centre = row * wordsPerRow;
+        int north = centre - wordsPerRow;
+        int south = centre + wordsPerRow;
+        int lastWord = wordsPerRow - 1;
+
+        long northWord = cells[north], centreWord = cells[centre], southWord = cells[south];
+        long northBefore = 0, centreBefore = 0, southBefore = 0;
+        long liveCells = 0;
+        for (int word = 0; word <= lastWord; word++)
+        {
+            long northAfter = word == lastWord ? 0 : cells[north + word + 1];
+            long centreAfter = word == lastWord ? 0 : cells[centre + word + 1];
+            long southAfter = word == lastWord ? 0 : cells[south + word + 1];
+
+            long next = LifeRule.nextGeneration(
+                centreWord,
+                westward(northWord, northBefore), northWord, eastward(northWord, northAfter),
+                westward(centreWord, centreBefore),          eastward(centreWord, centreAfter),
+                westward(southWord, southBefore), southWord, eastward(southWord, southAfter));
+            nextCells[centre + word] = next;
+            population += Long.bitCount(next);
+            births += Long.bitCount(next & ~centreWord);
+            deaths += Long.bitCount(centreWord & ~next);
+            liveCells |= next;
+
+            northBefore = northWord; northWord = northAfter;
+            centreBefore = centreWord; centreWord = centreAfter;
+            southBefore = southWord; southWord = southAfter;
+        }
+        liveEdgeWords |= nextCells[centre] | nextCells[centre + lastWord];
+        return liveCells != 0;
+    }
+
+    // Each of these gives, at every cell of a word, the state of that cell's neighbour to the west or east.
+
+    private static long westward(long word, long wordToWest) { return (word << 1) | (wordToWest >>> WORD_LAST); }
+    private static long eastward(long word, long wordToEast) { return (word >>> 1) | (wordToEast << WORD_LAST); }
+
+    // Making Room ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Whether the next generation could reach beyond the grid, or the one after that
+     * beyond the rows that evolving reads.
+     */
+    private boolean liveCellsNearEdge()
+    {
+        return liveEdgeWords != 0 || firstLiveRow < 2 || lastLiveRow > rows - 3;
+    }
+
+    private void regrow()
+    {
+        BoundingBox extent = extent();
+        DenseGrid grown = new DenseGrid(extent);
+        int rowOffset = firstRow - grown.firstRow;
+        int wordOffset = (firstColumn - grown.firstColumn) >> WORD_SHIFT;
+        int fromWord = (extent.westMostColumn - firstColumn) >> WORD_SHIFT;
+        int toWord = (extent.eastMostColumn - firstColumn) >> WORD_SHIFT;
+        for (int row = firstLiveRow; row <= lastLiveRow; row++)
+            System.arraycopy(cells, row * wordsPerRow + fromWord,
+                             grown.cells, (row + rowOffset) * grown.wordsPerRow + fromWord + wordOffset, toWord - fromWord + 1);
+
+        firstRow = grown.firstRow;
+        firstColumn = grown.firstColumn;
+        rows = grown.rows;
+        wordsPerRow = grown.wordsPerRow;
+        cells = grown.cells;
+        nextCells = grown.nextCells;
+        firstLiveRow += rowOffset;
+        lastLiveRow += rowOffset;
+        firstStaleRow = rows;
+        lastStaleRow = -1;
+        liveEdgeWords = 0;
+    }
+
+    /**
+     * A word with the lowest bit of each of its bytes set where that byte is non-zero.
+     */
+    private static long lowBitOfEachNonZeroByte(long word)
+    {
+        word |= word >>> 4;
+        word |= word >>> 2;
+        word |= word >>> 1;
+        return word & LOW_BIT_OF_EACH_BYTE;
+    }
+
+    // Constants //////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final int WORD_SHIFT = 6;
+    private static final int WORD_LAST = Long.SIZE - 1;
+    private static final int MARGIN = Long.SIZE;
+    private static final long MAX_WORDS = Integer.MAX_VALUE / 2;
+    private static final long ROW_OF_TILE = 0xFFL;
+    private static final long LOW_BIT_OF_EACH_BYTE = 0x0101010101010101L;
+}
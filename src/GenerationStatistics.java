@@ -0,0 +1,137 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Records the population, births, deaths and extent of the most recent generations of a run,
+ * in a ring buffer of primitive columns, so that recording a generation costs a handful of
+ * array writes and no allocation. When the buffer is full the oldest generation gives way.
+ */
+public class GenerationStatistics
+{
+    // Creation Methods ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public static GenerationStatistics keepingLast(int generations)
+    {
+        return new GenerationStatistics(generations);
+    }
+
+    // Recording //////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public void record(int generation, World world)
+    {
+        int slot = (first + size) % capacity;
+        if (size == capacity) first = (first + 1) % capacity; else size++;
+
+        generations[slot] = generation;
+        populations[slot] = world.population();
+        births[slot] = world.births();
+        deaths[slot] = world.deaths();
+        if (!world.isEmpty())
+        {
+            northMostRows[slot] = world.northMostRow();
+            southMostRows[slot] = world.southMostRow();
+            westMostColumns[slot] = world.westMostColumn();
+            eastMostColumns[slot] = world.eastMostColumn();
+        }
+    }
+
+    // Queries ////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The number of generations held, which are numbered from 0 (the oldest) in the queries below.
+     */
+    public int size() { return size; }
+
+    public int generation(int index) { return generations[slot(index)]; }
+
+    public int population(int index) { return populations[slot(index)]; }
+
+    public int births(int index) { return births[slot(index)]; }
+
+    public int deaths(int index) { return deaths[slot(index)]; }
+
+    // Exporting //////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Writes one line per generation held, oldest first, after a header line.
+     * The extent of an empty generation is left blank.
+     */
+    public void writeCsvTo(Appendable out) throws IOException
+    {
+        out.append(CSV_HEADER).append(NEWLINE);
+        for (int index = 0; index < size; index++)
+        {
+            int slot = slot(index);
+            out.append(Integer.toString(generations[slot])).append(',')
+               .append(Integer.toString(populations[slot])).append(',')
+               .append(Integer.toString(births[slot])).append(',')
+               .append(Integer.toString(deaths[slot]));
+            if (populations[slot] == 0)
+                out.append(",,,,");
+            else
+                out.append(',').append(Integer.toString(northMostRows[slot]))
+                   .append(',').append(Integer.toString(southMostRows[slot]))
+                   .append(',').append(Integer.toString(westMostColumns[slot]))
+                   .append(',').append(Integer.toString(eastMostColumns[slot]));
+            out.append(NEWLINE);
+        }
+    }
+
+    public String toCsv()
+    {
+        StringBuilder csv = new StringBuilder();
+        try
+        {
+            writeCsvTo(csv);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        return csv.toString();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private ////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    // Member fields //////////////////////////////////////////////////////////////////////////////////////////////
+    private final int capacity;
+    private final int[] generations;
+    private final int[] populations;
+    private final int[] births;
+    private final int[] deaths;
+    private final int[] northMostRows;
+    private final int[] southMostRows;
+    private final int[] westMostColumns;
+    private final int[] eastMostColumns;
+    private int first;
+    private int size;
+
+    // Constructors ///////////////////////////////////////////////////////////////////////////////////////////////
+    private GenerationStatistics(int capacity)
+    {
+        if (capacity < 1) throw new IllegalArgumentException("Must keep at least one generation: " + capacity);
+
+        this.capacity = capacity;
+        generations = new int[capacity];
+        populations = new int[capacity];
+        births = new int[capacity];
+        deaths = new int[capacity];
+        northMostRows = new int[capacity];
+        southMostRows = new int[capacity];
+        westMostColumns = new int[capacity];
+        eastMostColumns = new int[capacity];
+    }
+
+    private int slot(int index)
+    {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("No generation at index " + index + " of " + size);
+        return (first + index) % capacity;
+    }
+
+    // Constants //////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final String CSV_HEADER = "generation,population,births,deaths,northMostRow,southMostRow,westMostColumn,eastMostColumn";
+    private static final String NEWLINE = System.getProperty("line.separator");
+}
@@ -0,0 +1,40 @@
+/**
+ * The rules of life applied to 64 cells at once: bit i of the result is the next state of
+ * the cell whose current state is bit i of alive and whose neighbours are bit i of the
+ * eight neighbour words.
+ *
+ * The neighbours are summed with a tree of bitwise adders. Only the three low bits of the
+ * count are kept, which is enough because a count of 8 behaves like a count of 0.
+ */
+final class LifeRule
+{
+    static long nextGeneration(long alive,
+                               long northWest, long north, long northEast,
+                               long west,                  long east,
+                               long southWest, long south, long southEast)
+    {
+        long northSum = northWest ^ north;
+        long northOnes = northSum ^ northEast;
+        long northTwos = (northWest & north) | (northSum & northEast);
+
+        long middleOnes = west ^ east;
+        long middleTwos = west & east;
+
+        long southSum = southWest ^ south;
+        long southOnes = southSum ^ southEast;
+        long southTwos = (southWest & south) | (southSum & southEast);
+
+        long onesSum = northOnes ^ middleOnes;
+        long ones = onesSum ^ southOnes;
+        long onesCarry = (northOnes & middleOnes) | (onesSum & southOnes);
+
+        long twosLeft = northTwos ^ middleTwos;
+        long twosRight = southTwos ^ onesCarry;
+        long twos = twosLeft ^ twosRight;
+        long fours = (northTwos & middleTwos) ^ (southTwos & onesCarry) ^ (twosLeft & twosRight);
+
+        return twos & ~fours & (ones | alive);
+    }
+
+    private LifeRule() {}
+}
@@ -0,0 +1,110 @@
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Works out what a region of a world will look like some generations ahead without evolving
+ * the whole world.
+ *
+ * After t generations a cell depends only on the cells within distance t of it (in the sense of
+ * Location.distanceFrom), its backward light cone. So only the cells within distance t of the
+ * region are read from the world, the next generation is worked out only for the cells within
+ * distance t - 1, the one after that for those within t - 2, and so on down to the region itself.
+ * The cost depends on the size of the region and on t, but not on the size of the world.
+ */
+final class LightCone
+{
+    static World regionAfter(World world, int generations, Location northWestCorner, Location southEastCorner)
+    {
+        if (generations < 0) throw new IllegalArgumentException("Cannot look back " + -generations + " generations");
+        if (northWestCorner.row() > southEastCorner.row() || northWestCorner.column() > southEastCorner.column())
+            throw new IllegalArgumentException(northWestCorner + " is not north west of " + southEastCorner);
+
+        BoundingBox region = BoundingBox.of(
+            northWestCorner.row(), southEastCorner.row(), northWestCorner.column(), southEastCorner.column());
+
+        Map<Long, Long> tiles = tilesOf(world, region.grownBy(generations));
+        for (int distance = generations - 1; distance >= 0; distance--)
+            tiles = nextGenerationOf(tiles, region.grownBy(distance));
+
+        return worldOf(tiles);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private ////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The live cells of the world within the box, found by looking up each tile of the box,
+     * or by going through the world's tiles if there are fewer of those.
+     */
+    private static Map<Long, Long> tilesOf(World world, BoundingBox box)
+    {
+        Map<Long, Long> tiles = new HashMap<>();
+        PersistentCellSet cells = world.cells();
+
+        if (cells.tileCount() < box.tileCount())
+            cells.forEachTile((tileKey, occupancy) -> keep(tiles, tileKey, occupancy & box.maskOf(tileKey)));
+        else
+            for (int tileRow = box.northMostRow >> Tiles.SHIFT; tileRow <= box.southMostRow >> Tiles.SHIFT; tileRow++)
+                for (int tileColumn = box.westMostColumn >> Tiles.SHIFT; tileColumn <= box.eastMostColumn >> Tiles.SHIFT; tileColumn++)
+                {
+                    long tileKey = CellKeys.keyOf(tileRow, tileColumn);
+                    keep(tiles, tileKey, cells.tileAt(tileKey) & box.maskOf(tileKey));
+                }
+
+        return tiles;
+    }
+
+    /**
+     * The next generation of the cells within the box. Only tiles with live cells,
+     * and their neighbours, can hold live cells in the next generation.
+     */
+    private static Map<Long, Long> nextGenerationOf(Map<Long, Long> tiles, BoundingBox box)
+    {
+        Set<Long> tilesThatMayHoldLiveCells = new HashSet<>();
+        for (long tileKey : tiles.keySet())
+            for (int rowOffset = -1; rowOffset <= 1; rowOffset++)
+                for (int columnOffset = -1; columnOffset <= 1; columnOffset++)
+                    tilesThatMayHoldLiveCells.add(Tiles.neighbourOf(tileKey, rowOffset, columnOffset));
+
+        Map<Long, Long> nextTiles = new HashMap<>();
+        for (long tileKey : tilesThatMayHoldLiveCells)
+        {
+            long mask = box.maskOf(tileKey);
+            if (mask != 0) keep(nextTiles, tileKey, nextGenerationOf(tiles, tileKey) & mask);
+        }
+        return nextTiles;
+    }
+
+    private static long nextGenerationOf(Map<Long, Long> tiles, long tileKey)
+    {
+        return Tiles.nextGeneration(
+            tileAt(tiles, tileKey, -1, -1), tileAt(tiles, tileKey, -1, 0), tileAt(tiles, tileKey, -1, +1),
+            tileAt(tiles, tileKey,  0, -1), tileAt(tiles, tileKey,  0, 0), tileAt(tiles, tileKey,  0, +1),
+            tileAt(tiles, tileKey, +1, -1), tileAt(tiles, tileKey, +1, 0), tileAt(tiles, tileKey, +1, +1));
+    }
+
+    private static long tileAt(Map<Long, Long> tiles, long tileKey, int rowOffset, int columnOffset)
+    {
+        return tiles.getOrDefault(Tiles.neighbourOf(tileKey, rowOffset, columnOffset), 0L);
+    }
+
+    private static void keep(Map<Long, Long> tiles, long tileKey, long occupancy)
+    {
+        if (occupancy != 0) tiles.put(tileKey, occupancy);
+    }
+
+    private static World worldOf(Map<Long, Long> tiles)
+    {
+        long[] cellKeys = new long[tiles.values().stream().mapToInt(Long::bitCount).sum()];
+        int count = 0;
+        for (Map.Entry<Long, Long> tile : tiles.entrySet())
+            for (long remaining = tile.getValue(); remaining != 0; remaining &= remaining - 1)
+                cellKeys[count++] = Tiles.cellKeyOf(tile.getKey(), Long.numberOfTrailingZeros(remaining));
+        return World.withCellKeys(cellKeys);
+    }
+
+    private LightCone() {}
+}
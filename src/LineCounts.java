@@ -0,0 +1,264 @@
+import java.util.*;
+
+/**
+ * The number of live cells in each row and in each column of a world, so that its bounding
+ * box can be read off the first and last rows and columns with live cells however the cells
+ * on its edges come and go.
+ *
+ * The counts are kept per row and per column of tiles, eight lines to each, in two immutable
+ * tries ordered by tile row or tile column. Like PersistentCellSet, changing the counts of a
+ * line copies only the path of trie nodes leading to it, so each world has counts of its own
+ * that share every untouched node with those of the world it was made from, and making a
+ * world from any other, however often, costs time in proportion to the lines that change.
+ */
+final class LineCounts
+{
+    static final LineCounts NONE = new LineCounts(Node.EMPTY, Node.EMPTY);
+
+    /**
+     * Tallies the changes to the lines of a number of tiles, so that each row and column of
+     * tiles is changed once however many of its tiles changed.
+     */
+    static final class Changes
+    {
+        void record(long tileKey, long occupancy, long changedOccupancy)
+        {
+            if (occupancy == changedOccupancy) return;
+
+            int[] rowChanges = rows.computeIfAbsent(CellKeys.rowOf(tileKey), tileRow -> new int[Tiles.SIZE]);
+            int[] columnChanges = columns.computeIfAbsent(CellKeys.columnOf(tileKey), tileColumn -> new int[Tiles.SIZE]);
+            for (int line = 0; line < Tiles.SIZE; line++)
+            {
+                long row = ROW << (line << Tiles.SHIFT);
+                rowChanges[line] += Long.bitCount(changedOccupancy & row) - Long.bitCount(occupancy & row);
+
+                long column = COLUMN << line;
+                columnChanges[line] += Long.bitCount(changedOccupancy & column) - Long.bitCount(occupancy & column);
+            }
+        }
+
+        private final Map<Integer, int[]> rows = new HashMap<>();
+        private final Map<Integer, int[]> columns = new HashMap<>();
+    }
+
+    LineCounts changedBy(Changes changes)
+    {
+        if (changes.rows.isEmpty()) return this;
+        return new LineCounts(changed(rows, changes.rows), changed(columns, changes.columns));
+    }
+
+    BoundingBox boundingBox()
+    {
+        if (rows == Node.EMPTY) return BoundingBox.NONE;
+
+        int north = rows.firstKey(TOP_SHIFT), south = rows.lastKey(TOP_SHIFT);
+        int west = columns.firstKey(TOP_SHIFT), east = columns.lastKey(TOP_SHIFT);
+        return BoundingBox.of(
+            firstCellOf(north) + rows.linesAt(north, TOP_SHIFT).first(), firstCellOf(south) + rows.linesAt(south, TOP_SHIFT).last(),
+            firstCellOf(west) + columns.linesAt(west, TOP_SHIFT).first(), firstCellOf(east) + columns.linesAt(east, TOP_SHIFT).last());
+    }
+
+    /**
+     * The number of distinct trie nodes and line counts reachable from any of the given
+     * counts, i.e. how much memory a history of counts really occupies.
+     */
+    static int distinctNodeCount(Iterable<LineCounts> counts)
+    {
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (LineCounts lineCounts : counts)
+        {
+            lineCounts.rows.collectInto(visited, TOP_SHIFT);
+            lineCounts.columns.collectInto(visited, TOP_SHIFT);
+        }
+        return visited.size();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private ////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    // Member fields //////////////////////////////////////////////////////////////////////////////////////////////
+    private final Node rows;       // from the row of tiles, as a key, to the counts of its eight rows
+    private final Node columns;    // likewise for the columns of tiles
+
+    // Constructors ///////////////////////////////////////////////////////////////////////////////////////////////
+    private LineCounts(Node rows, Node columns)
+    {
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    private static Node changed(Node root, Map<Integer, int[]> changes)
+    {
+        for (Map.Entry<Integer, int[]> change : changes.entrySet())
+        {
+            int key = keyOf(change.getKey());
+            Lines lines = root.linesAt(key, TOP_SHIFT);
+            root = root.with(key, (lines == NO_LINES ? Lines.NONE : lines).plus(change.getValue()), TOP_SHIFT);
+        }
+        return root;
+    }
+
+    /**
+     * Flipping the sign bit orders the keys, compared as unsigned, as their rows or columns.
+     */
+    private static int keyOf(int tileLine) { return tileLine ^ Integer.MIN_VALUE; }
+
+    private static int firstCellOf(int key) { return (key ^ Integer.MIN_VALUE) << Tiles.SHIFT; }
+
+    // Line Counts ////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The live cells in each of the eight rows of a row of tiles, or the eight columns of a column of tiles.
+     */
+    private static final class Lines
+    {
+        static final Lines NONE = new Lines(new int[Tiles.SIZE], 0);
+
+        /**
+         * NO_LINES when the changes leave no live cells.
+         */
+        Lines plus(int[] changes)
+        {
+            int[] changedCounts = counts.clone();
+            int changedTotal = total;
+            for (int line = 0; line < Tiles.SIZE; line++)
+            {
+                changedCounts[line] += changes[line];
+                changedTotal += changes[line];
+            }
+            return changedTotal == 0 ? NO_LINES : new Lines(changedCounts, changedTotal);
+        }
+
+        int first()
+        {
+            int line = 0;
+            while (counts[line] == 0) line++;
+            return line;
+        }
+
+        int last()
+        {
+            int line = Tiles.LAST;
+            while (counts[line] == 0) line--;
+            return line;
+        }
+
+        private Lines(int[] counts, int total)
+        {
+            this.counts = counts;
+            this.total = total;
+        }
+
+        private final int[] counts;
+        private final int total;
+    }
+
+    // Trie Nodes /////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Each node consumes five bits of the key, the most significant first, and has a slot for
+     * each value of them, present when its bit is set in slotMap. The slots of the nodes at the
+     * bottom hold line counts, those of the nodes above hold nodes. Every key is found at the
+     * same depth, and the slots of a node are in key order, so the first and last keys are
+     * found by following the first or last slot down.
+     */
+    private static final class Node
+    {
+        static final Node EMPTY = new Node(0, new Object[0]);
+
+        Lines linesAt(int key, int shift)
+        {
+            int bit = bitFor(key, shift);
+            if ((slotMap & bit) == 0) return NO_LINES;
+
+            Object slot = slots[indexOf(bit)];
+            return shift == 0 ? (Lines) slot : ((Node) slot).linesAt(key, shift - BITS_PER_LEVEL);
+        }
+
+        /**
+         * This node with the given counts at the key, or without the key when they are NO_LINES.
+         */
+        Node with(int key, Lines lines, int shift)
+        {
+            int bit = bitFor(key, shift);
+            int index = indexOf(bit);
+            boolean present = (slotMap & bit) != 0;
+            Object slot = shift == 0
+                ? lines
+                : (present ? (Node) slots[index] : EMPTY).with(key, lines, shift - BITS_PER_LEVEL);
+            boolean empty = slot == NO_LINES || slot == EMPTY;
+
+            if (!present) return empty ? this : new Node(slotMap | bit, inserted(index, slot));
+            if (!empty) return new Node(slotMap, replaced(index, slot));
+            return slotMap == bit ? EMPTY : new Node(slotMap ^ bit, removed(index));
+        }
+
+        int firstKey(int shift)
+        {
+            int slot = Integer.numberOfTrailingZeros(slotMap);
+            int key = slot << shift;
+            return shift == 0 ? key : key | ((Node) slots[0]).firstKey(shift - BITS_PER_LEVEL);
+        }
+
+        int lastKey(int shift)
+        {
+            int slot = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(slotMap);
+            int key = slot << shift;
+            return shift == 0 ? key : key | ((Node) slots[slots.length - 1]).lastKey(shift - BITS_PER_LEVEL);
+        }
+
+        void collectInto(Set<Object> visited, int shift)
+        {
+            if (!visited.add(this)) return;
+            for (Object slot : slots)
+                if (shift == 0) visited.add(slot); else ((Node) slot).collectInto(visited, shift - BITS_PER_LEVEL);
+        }
+
+        private Node(int slotMap, Object[] slots)
+        {
+            this.slotMap = slotMap;
+            this.slots = slots;
+        }
+
+        private static int bitFor(int key, int shift) { return 1 << ((key >>> shift) & SLOT_MASK); }
+
+        private int indexOf(int bit) { return Integer.bitCount(slotMap & (bit - 1)); }
+
+        private Object[] inserted(int index, Object slot)
+        {
+            Object[] changedSlots = new Object[slots.length + 1];
+            System.arraycopy(slots, 0, changedSlots, 0, index);
+            changedSlots[index] = slot;
+            System.arraycopy(slots, index, changedSlots, index + 1, slots.length - index);
+            return changedSlots;
+        }
+
+        private Object[] replaced(int index, Object slot)
+        {
+            Object[] changedSlots = slots.clone();
+            changedSlots[index] = slot;
+            return changedSlots;
+        }
+
+        private Object[] removed(int index)
+        {
+            Object[] changedSlots = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, changedSlots, 0, index);
+            System.arraycopy(slots, index + 1, changedSlots, index, slots.length - index - 1);
+            return changedSlots;
+        }
+
+        private final int slotMap;
+        private final Object[] slots;
+    }
+
+    // Constants //////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final Lines NO_LINES = null;
+    private static final int BITS_PER_LEVEL = 5;
+    private static final int SLOT_MASK = (1 << BITS_PER_LEVEL) - 1;
+    private static final int TOP_SHIFT = 30;      // the top level takes the two bits left over from six levels of five
+    private static final long ROW = 0xFFL;
+    private static final long COLUMN = 0x0101010101010101L;
+}
@@ -18,6 +18,9 @@ public class Location implements Comparable<Location>
     public Location south() { return new Location(row + 1, col); }
     public Location southWest() { return new Location(row + 1, col - 1); }
 
+    public int row() { return row; }
+    public int column() { return col; }
+
     /**
      * A location comes before locations that are:
      * 1) South of it
@@ -40,8 +43,8 @@ public class Location implements Comparable<Location>
      */
     public int distanceFrom(Location other)
     {
-        int numberOfRowsBetweenLocations = Math.abs(Math.abs(this.row) - Math.abs(other.row));
-        int numberOfColumnsBetweenLocations = Math.abs(Math.abs(this.col) - Math.abs(other.col));
+        int numberOfRowsBetweenLocations = Math.abs(this.row - other.row);
+        int numberOfColumnsBetweenLocations = Math.abs(this.col - other.col);
         return Math.max(numberOfRowsBetweenLocations, numberOfColumnsBetweenLocations);
     }
 
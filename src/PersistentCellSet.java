@@ -0,0 +1,394 @@
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+/**
+ * An immutable set of live cells, held as a hash array mapped trie from tile keys to
+ * the 64 bit occupancy of each 8 x 8 tile (see Tiles).
+ *
+ * Changing a tile copies only the path of trie nodes leading to it, so a set derived from
+ * another shares every untouched subtree with it. Nodes are also hash-consed: building a
+ * node equal to one that is still reachable yields that very node. A world that returns to
+ * an earlier state (still lifes, oscillators) therefore returns to the earlier nodes, and two
+ * sets are equal exactly when their roots are the same object.
+ */
+final class PersistentCellSet
+{
+    static final PersistentCellSet EMPTY = new PersistentCellSet(Node.EMPTY, 0, 0);
+
+    interface TileVisitor
+    {
+        void visit(long tileKey, long occupancy);
+    }
+
+    interface TileChangeVisitor
+    {
+        void visit(long tileKey, long occupancy, long changedOccupancy);
+    }
+
+    boolean contains(int row, int column)
+    {
+        return (tileAt(Tiles.tileKeyOf(row, column)) & Tiles.maskOf(row, column)) != 0;
+    }
+
+    /**
+     * The occupancy of the given tile, which is zero if none of its cells are live.
+     */
+    long tileAt(long tileKey)
+    {
+        return root.tileAt(tileKey, CellKeys.mix(tileKey), 0);
+    }
+
+    PersistentCellSet withTile(long tileKey, long occupancy)
+    {
+        long hash = CellKeys.mix(tileKey);
+        long previousOccupancy = root.tileAt(tileKey, hash, 0);
+        if (previousOccupancy == occupancy) return this;
+
+        Node newRoot = occupancy == 0
+            ? root.without(tileKey, hash, 0)
+            : root.with(tileKey, occupancy, hash, 0);
+        int newPopulation = population - Long.bitCount(previousOccupancy) + Long.bitCount(occupancy);
+        int newTileCount = tileCount + (previousOccupancy == 0 ? 1 : 0) - (occupancy == 0 ? 1 : 0);
+        return new PersistentCellSet(newRoot, newPopulation, newTileCount);
+    }
+
+    void forEachTile(TileVisitor visitor)
+    {
+        root.forEachTile(visitor);
+    }
+
+    /**
+     * Visits every tile whose occupancy differs between this set and the changed one.
+     * Subtrees the two sets share are skipped, so for a set derived from this one the
+     * cost is proportional to the size of the change rather than to the size of the sets.
+     */
+    void forEachTileChangedIn(PersistentCellSet changed, TileChangeVisitor visitor)
+    {
+        Node.diff(root, changed.root, visitor);
+    }
+
+    int population() { return population; }
+
+    int tileCount() { return tileCount; }
+
+    boolean isEmpty() { return population == 0; }
+
+    /**
+     * The number of distinct trie nodes reachable from any of the given sets,
+     * i.e. how much memory a history of sets really occupies.
+     */
+    static int distinctNodeCount(Iterable<PersistentCellSet> sets)
+    {
+        Set<Node> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (PersistentCellSet set : sets) set.root.collectInto(visited);
+        return visited.size();
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        return root == ((PersistentCellSet) o).root;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return root.hashCode();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private ////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    // Member fields //////////////////////////////////////////////////////////////////////////////////////////////
+    private final Node root;
+    private final int population;
+    private final int tileCount;
+
+    // Constructors ///////////////////////////////////////////////////////////////////////////////////////////////
+    private PersistentCellSet(Node root, int population, int tileCount)
+    {
+        this.root = root;
+        this.population = population;
+        this.tileCount = tileCount;
+    }
+
+    // Trie Nodes /////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Each node consumes five bits of the mixed tile key. A slot holds either a tile entry,
+     * when the slot's bit is set in dataMap, or a child node, when it is set in nodeMap.
+     * Entries are stored as consecutive (tile key, occupancy) pairs.
+     *
+     * A node below the root always holds at least two entries in its subtree, which keeps
+     * the shape of the trie a function of its contents alone.
+     */
+    private static final class Node
+    {
+        static final Node EMPTY = new Node(0, 0, new long[0], new Node[0]);
+
+        static Node of(int dataMap, int nodeMap, long[] entries, Node[] children)
+        {
+            if (dataMap == 0 && nodeMap == 0) return EMPTY;
+            return intern(new Node(dataMap, nodeMap, entries, children));
+        }
+
+        long tileAt(long tileKey, long hash, int shift)
+        {
+            int bit = bitFor(hash, shift);
+            if ((dataMap & bit) != 0)
+            {
+                int index = 2 * indexOf(dataMap, bit);
+                return entries[index] == tileKey ? entries[index + 1] : 0;
+            }
+            if ((nodeMap & bit) != 0)
+                return children[indexOf(nodeMap, bit)].tileAt(tileKey, hash, shift + BITS_PER_LEVEL);
+            return 0;
+        }
+
+        Node with(long tileKey, long occupancy, long hash, int shift)
+        {
+            int bit = bitFor(hash, shift);
+            if ((dataMap & bit) != 0)
+            {
+                int index = 2 * indexOf(dataMap, bit);
+                long existingKey = entries[index];
+                if (existingKey == tileKey)
+                {
+                    long[] newEntries = entries.clone();
+                    newEntries[index + 1] = occupancy;
+                    return of(dataMap, nodeMap, newEntries, children);
+                }
+                Node pushedDown = pairOf(
+                    existingKey, entries[index + 1], CellKeys.mix(existingKey),
+                    tileKey, occupancy, hash,
+                    shift + BITS_PER_LEVEL);
+                return of(dataMap ^ bit, nodeMap | bit,
+                          removeEntry(index), insertChild(indexOf(nodeMap, bit), pushedDown));
+            }
+            if ((nodeMap & bit) != 0)
+            {
+                int index = indexOf(nodeMap, bit);
+                Node child = children[index].with(tileKey, occupancy, hash, shift + BITS_PER_LEVEL);
+                return child == children[index] ? this : of(dataMap, nodeMap, entries, replaceChild(index, child));
+            }
+            return of(dataMap | bit, nodeMap, insertEntry(2 * indexOf(dataMap, bit), tileKey, occupancy), children);
+        }
+
+        Node without(long tileKey, long hash, int shift)
+        {
+            int bit = bitFor(hash, shift);
+            if ((dataMap & bit) != 0)
+            {
+                int index = 2 * indexOf(dataMap, bit);
+                return entries[index] == tileKey ? of(dataMap ^ bit, nodeMap, removeEntry(index), children) : this;
+            }
+            if ((nodeMap & bit) != 0)
+            {
+                int index = indexOf(nodeMap, bit);
+                Node child = children[index].without(tileKey, hash, shift + BITS_PER_LEVEL);
+                if (child == children[index]) return this;
+                if (child.holdsSingleEntry())
+                    return of(dataMap | bit, nodeMap ^ bit,
+                              insertEntry(2 * indexOf(dataMap, bit), child.entries[0], child.entries[1]),
+                              removeChild(index));
+                return of(dataMap, nodeMap, entries, replaceChild(index, child));
+            }
+            return this;
+        }
+
+        void forEachTile(TileVisitor visitor)
+        {
+            for (int index = 0; index < entries.length; index += 2) visitor.visit(entries[index], entries[index + 1]);
+            for (Node child : children) child.forEachTile(visitor);
+        }
+
+        static void diff(Node node, Node changed, TileChangeVisitor visitor)
+        {
+            if (node == changed) return;
+
+            for (int slots = node.dataMap | node.nodeMap | changed.dataMap | changed.nodeMap; slots != 0; slots &= slots - 1)
+            {
+                int bit = Integer.lowestOneBit(slots);
+                if ((node.nodeMap & bit) != 0 && (changed.nodeMap & bit) != 0)
+                {
+                    diff(node.children[indexOf(node.nodeMap, bit)], changed.children[indexOf(changed.nodeMap, bit)], visitor);
+                    continue;
+                }
+
+                Map<Long, Long> tiles = node.tilesInSlot(bit);
+                Map<Long, Long> changedTiles = changed.tilesInSlot(bit);
+                tiles.forEach((tileKey, occupancy) -> {
+                    long changedOccupancy = changedTiles.getOrDefault(tileKey, 0L);
+                    if (changedOccupancy != occupancy) visitor.visit(tileKey, occupancy, changedOccupancy);
+                });
+                changedTiles.forEach((tileKey, changedOccupancy) -> {
+                    if (!tiles.containsKey(tileKey)) visitor.visit(tileKey, 0L, changedOccupancy);
+                });
+            }
+        }
+
+        void collectInto(Set<Node> visited)
+        {
+            if (visited.add(this))
+                for (Node child : children) child.collectInto(visited);
+        }
+
+        /**
+         * Nodes are compared shallowly: children are already canonical, so equal
+         * subtrees are identical objects.
+         */
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Node node = (Node) o;
+
+            if (hash != node.hash) return false;
+            if (dataMap != node.dataMap || nodeMap != node.nodeMap) return false;
+            if (!Arrays.equals(entries, node.entries)) return false;
+            for (int index = 0; index < children.length; index++)
+                if (children[index] != node.children[index]) return false;
+            return true;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        private Node(int dataMap, int nodeMap, long[] entries, Node[] children)
+        {
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.entries = entries;
+            this.children = children;
+
+            int result = 31 * dataMap + nodeMap;
+            result = 31 * result + Arrays.hashCode(entries);
+            for (Node child : children) result = 31 * result + System.identityHashCode(child);
+            this.hash = result;
+        }
+
+        private static Node pairOf(long firstKey, long firstOccupancy, long firstHash,
+                                   long secondKey, long secondOccupancy, long secondHash,
+                                   int shift)
+        {
+            int firstBit = bitFor(firstHash, shift);
+            int secondBit = bitFor(secondHash, shift);
+            if (firstBit == secondBit)
+                return of(0, firstBit, NO_ENTRIES, new Node[]{ pairOf(
+                    firstKey, firstOccupancy, firstHash,
+                    secondKey, secondOccupancy, secondHash,
+                    shift + BITS_PER_LEVEL) });
+
+            long[] entries = Integer.compareUnsigned(firstBit, secondBit) < 0
+                ? new long[]{ firstKey, firstOccupancy, secondKey, secondOccupancy }
+                : new long[]{ secondKey, secondOccupancy, firstKey, firstOccupancy };
+            return of(firstBit | secondBit, 0, entries, NO_CHILDREN);
+        }
+
+        private Map<Long, Long> tilesInSlot(int bit)
+        {
+            Map<Long, Long> tiles = new HashMap<>();
+            if ((dataMap & bit) != 0)
+            {
+                int index = 2 * indexOf(dataMap, bit);
+                tiles.put(entries[index], entries[index + 1]);
+            }
+            if ((nodeMap & bit) != 0)
+                children[indexOf(nodeMap, bit)].forEachTile(tiles::put);
+            return tiles;
+        }
+
+        private boolean holdsSingleEntry()
+        {
+            return nodeMap == 0 && entries.length == 2;
+        }
+
+        private long[] insertEntry(int index, long tileKey, long occupancy)
+        {
+            long[] newEntries = new long[entries.length + 2];
+            System.arraycopy(entries, 0, newEntries, 0, index);
+            newEntries[index] = tileKey;
+            newEntries[index + 1] = occupancy;
+            System.arraycopy(entries, index, newEntries, index + 2, entries.length - index);
+            return newEntries;
+        }
+
+        private long[] removeEntry(int index)
+        {
+            long[] newEntries = new long[entries.length - 2];
+            System.arraycopy(entries, 0, newEntries, 0, index);
+            System.arraycopy(entries, index + 2, newEntries, index, newEntries.length - index);
+            return newEntries;
+        }
+
+        private Node[] insertChild(int index, Node child)
+        {
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newChildren[index] = child;
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            return newChildren;
+        }
+
+        private Node[] removeChild(int index)
+        {
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(children, index + 1, newChildren, index, newChildren.length - index);
+            return newChildren;
+        }
+
+        private Node[] replaceChild(int index, Node child)
+        {
+            Node[] newChildren = children.clone();
+            newChildren[index] = child;
+            return newChildren;
+        }
+
+        private static int bitFor(long hash, int shift) { return 1 << ((int) (hash >>> shift) & LEVEL_MASK); }
+
+        private static int indexOf(int map, int bit) { return Integer.bitCount(map & (bit - 1)); }
+
+        private final int dataMap;
+        private final int nodeMap;
+        private final long[] entries;
+        private final Node[] children;
+        private final int hash;
+    }
+
+    // Hash-consing ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Canonical nodes are only weakly held, so nodes that no longer belong to any
+     * reachable set can still be collected.
+     */
+    private static Node intern(Node node)
+    {
+        synchronized (CANONICAL_NODES)
+        {
+            WeakReference<Node> canonical = CANONICAL_NODES.get(node);
+            Node existing = canonical == null ? null : canonical.get();
+            if (existing != null) return existing;
+
+            CANONICAL_NODES.put(node, new WeakReference<>(node));
+            return node;
+        }
+    }
+
+    // Constants //////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final int BITS_PER_LEVEL = 5;
+    private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+    private static final long[] NO_ENTRIES = new long[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Map<Node, WeakReference<Node>> CANONICAL_NODES = new WeakHashMap<>();
+}
@@ -0,0 +1,346 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Evolves a world on the calling thread while separate threads render and persist its
+ * generations, so that slow displays and slow storage do not hold up the simulation.
+ *
+ * Each of the rendering and persistence stages takes frames from its own bounded queue.
+ * What happens when a queue is full is up to the stage's overflow policy: the simulation
+ * can wait for the stage (BLOCK), the new frame can be dropped (DROP), or the oldest waiting
+ * frames can give way to it (COALESCE), so that a stage that falls behind skips straight to
+ * the most recent generations. Rendering can also be limited to every nth generation.
+ */
+public class Pipeline
+{
+    public enum OverflowPolicy { BLOCK, DROP, COALESCE }
+
+    public interface Display
+    {
+        void show(int generation, String renderedWorld);
+    }
+
+    public interface Store
+    {
+        void save(int generation, World world) throws IOException;
+    }
+
+    // Creation Methods ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public static Pipeline of(World world, Display display, Store store)
+    {
+        return new Pipeline(world, display, store);
+    }
+
+    // Configuration //////////////////////////////////////////////////////////////////////////////////////////////
+
+    public Pipeline renderingEvery(int generations)
+    {
+        if (generations < 1) throw new IllegalArgumentException("Must render every 1 or more generations: " + generations);
+        renderingInterval = generations;
+        return this;
+    }
+
+    public Pipeline renderingQueue(int capacity, OverflowPolicy policy)
+    {
+        rendering = new Stage("rendering", capacity, policy);
+        return this;
+    }
+
+    public Pipeline persistenceQueue(int capacity, OverflowPolicy policy)
+    {
+        persistence = new Stage("persistence", capacity, policy);
+        return this;
+    }
+
+    // Running ////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Evolves the world the given number of times, handing generations to the rendering
+     * and persistence stages as it goes, and waits for both stages to finish before
+     * returning the last generation, or throwing what failed. The stages are finished
+     * even if evolving fails. A pipeline can be run again; each run starts its stages
+     * afresh, and the statistics are those of the latest run.
+     */
+    public World run(int generations)
+    {
+        Thread renderer = rendering.startWith(frame -> display.show(frame.generation, frame.world.toString()));
+        Thread persister = persistence.startWith(frame -> store.save(frame.generation, frame.world));
+        evolution.start();
+
+        World current = world;
+        try
+        {
+            publish(0, current);
+            for (int generation = 1; generation <= generations; generation++)
+            {
+                current = current.evolve();
+                evolution.processed.incrementAndGet();
+                publish(generation, current);
+            }
+        }
+        finally
+        {
+            evolution.finish();
+            rendering.finishAfter(renderer);
+            persistence.finishAfter(persister);
+        }
+        rethrowAnyFailureOf(rendering);
+        rethrowAnyFailureOf(persistence);
+        return current;
+    }
+
+    // Statistics /////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public StageStatistics evolutionStatistics() { return evolution.statistics(); }
+
+    public StageStatistics renderingStatistics() { return rendering.statistics(); }
+
+    public StageStatistics persistenceStatistics() { return persistence.statistics(); }
+
+    public static final class StageStatistics
+    {
+        public String stage() { return stage; }
+
+        /**
+         * Generations evolved, for the evolution stage, or handled, for the other stages.
+         */
+        public long processed() { return processed; }
+
+        /**
+         * Frames dropped or coalesced away because the stage's queue was full.
+         */
+        public long discarded() { return discarded; }
+
+        public int queueDepth() { return queueDepth; }
+
+        public int peakQueueDepth() { return peakQueueDepth; }
+
+        public double throughputPerSecond() { return elapsedNanos == 0 ? 0 : processed * 1e9 / elapsedNanos; }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s: %d processed (%.1f/s), %d discarded, queue depth %d (peak %d)",
+                                 stage, processed, throughputPerSecond(), discarded, queueDepth, peakQueueDepth);
+        }
+
+        private StageStatistics(String stage, long processed, long discarded, int queueDepth, int peakQueueDepth, long elapsedNanos)
+        {
+            this.stage = stage;
+            this.processed = processed;
+            this.discarded = discarded;
+            this.queueDepth = queueDepth;
+            this.peakQueueDepth = peakQueueDepth;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        private final String stage;
+        private final long processed;
+        private final long discarded;
+        private final int queueDepth;
+        private final int peakQueueDepth;
+        private final long elapsedNanos;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private ////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    // Member fields //////////////////////////////////////////////////////////////////////////////////////////////
+    private final World world;
+    private final Display display;
+    private final Store store;
+    private int renderingInterval = 1;
+    private final Stage evolution = new Stage("evolution", 1, OverflowPolicy.BLOCK);
+    private Stage rendering = new Stage("rendering", DEFAULT_QUEUE_CAPACITY, OverflowPolicy.DROP);
+    private Stage persistence = new Stage("persistence", DEFAULT_QUEUE_CAPACITY, OverflowPolicy.COALESCE);
+
+    // Constructors ///////////////////////////////////////////////////////////////////////////////////////////////
+    private Pipeline(World world, Display display, Store store)
+    {
+        this.world = world;
+        this.display = display;
+        this.store = store;
+    }
+
+    private void publish(int generation, World world)
+    {
+        Frame frame = new Frame(generation, world);
+        if (generation % renderingInterval == 0) rendering.offer(frame);
+        persistence.offer(frame);
+    }
+
+    private static void rethrowAnyFailureOf(Stage stage)
+    {
+        Throwable failure = stage.failure.get();
+        if (failure instanceof Error) throw (Error) failure;
+        if (failure instanceof IOException) throw new UncheckedIOException("The " + stage.name + " stage failed", (IOException) failure);
+        if (failure != null) throw new IllegalStateException("The " + stage.name + " stage failed", failure);
+    }
+
+    // Frames /////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final class Frame
+    {
+        Frame(int generation, World world)
+        {
+            this.generation = generation;
+            this.world = world;
+        }
+
+        final int generation;
+        final World world;
+    }
+
+    private interface FrameHandler
+    {
+        void handle(Frame frame) throws Exception;
+    }
+
+    // Stages /////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * A stage that fails, even with an Error, stops handling frames but keeps taking them
+     * off its queue, so that a blocked simulation is never left waiting on it.
+     */
+    private static final class Stage
+    {
+        Stage(String name, int capacity, OverflowPolicy policy)
+        {
+            if (capacity < 1) throw new IllegalArgumentException("The " + name + " queue needs room for a frame");
+
+            this.name = name;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.policy = policy;
+        }
+
+        Thread startWith(FrameHandler handler)
+        {
+            start();
+            Thread thread = new Thread(() -> handleFramesWith(handler), name);
+            thread.setDaemon(true);
+            thread.start();
+            return thread;
+        }
+
+        void start()
+        {
+            queue.clear();
+            processed.set(0);
+            discarded.set(0);
+            peakQueueDepth.set(0);
+            failure.set(null);
+            finishNanos = 0;
+            startNanos = System.nanoTime();
+        }
+
+        void finish()
+        {
+            finishNanos = System.nanoTime();
+        }
+
+        void finishAfter(Thread thread)
+        {
+            putUninterruptibly(END_OF_RUN);
+            boolean interrupted = false;
+            while (thread.isAlive())
+            {
+                try { thread.join(); }
+                catch (InterruptedException e) { interrupted = true; }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+
+        void offer(Frame frame)
+        {
+            switch (policy)
+            {
+                case BLOCK:
+                    putUninterruptibly(frame);
+                    break;
+                case DROP:
+                    if (!queue.offer(frame)) discarded.incrementAndGet();
+                    break;
+                case COALESCE:
+                    while (!queue.offer(frame))
+                        if (queue.poll() != null) discarded.incrementAndGet();
+                    break;
+            }
+            peakQueueDepth.accumulateAndGet(queue.size(), Math::max);
+        }
+
+        StageStatistics statistics()
+        {
+            long end = finishNanos != 0 ? finishNanos : System.nanoTime();
+            long elapsed = startNanos == 0 ? 0 : end - startNanos;
+            return new StageStatistics(name, processed.get(), discarded.get(), queue.size(), peakQueueDepth.get(), elapsed);
+        }
+
+        private void handleFramesWith(FrameHandler handler)
+        {
+            try
+            {
+                for (Frame frame = queue.take(); frame != END_OF_RUN; frame = queue.take())
+                {
+                    if (failure.get() != null) continue;
+                    try
+                    {
+                        handler.handle(frame);
+                        processed.incrementAndGet();
+                    }
+                    catch (Throwable t)
+                    {
+                        failure.compareAndSet(null, t);
+                    }
+                }
+            }
+            catch (InterruptedException e)
+            {
+                failure.compareAndSet(null, e);
+            }
+            finally
+            {
+                finish();
+            }
+        }
+
+        private void putUninterruptibly(Frame frame)
+        {
+            boolean interrupted = false;
+            while (true)
+            {
+                try
+                {
+                    queue.put(frame);
+                    break;
+                }
+                catch (InterruptedException e)
+                {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+
+        final String name;
+        final BlockingQueue<Frame> queue;
+        final OverflowPolicy policy;
+        final AtomicLong processed = new AtomicLong();
+        final AtomicLong discarded = new AtomicLong();
+        final AtomicInteger peakQueueDepth = new AtomicInteger();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        volatile long startNanos;
+        volatile long finishNanos;
+    }
+
+    // Constants //////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 16;
+    private static final Frame END_OF_RUN = new Frame(-1, World.empty());
+}
@@ -0,0 +1,375 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.stream;
+
+/**
+ * A world held as runs of live cells along its rows, for very large worlds made of long lines,
+ * wicks and regular arrangements of still lifes, whose rows are a few long runs or many short
+ * identical ones. Memory follows the number of runs rather than the number of cells.
+ *
+ * The rows with live cells are held in ascending order, and the runs of each row as sorted,
+ * non-overlapping and non-adjacent pairs of columns, from the first live column of the run to
+ * one past its last. All the rows share three arrays: the row numbers, the offset of each row's
+ * first run, and the runs themselves, so a world is three objects however large it is.
+ *
+ * Evolving works on runs rather than cells. The live cells of a row in the next generation
+ * depend only on the rows above, at and below it, and the neighbour count along the row can
+ * only change at the ends of those rows' runs, within a column either side. So the row is
+ * worked out at those breakpoints alone, and each stretch between two breakpoints becomes
+ * live or dead as a whole: a line a million cells long costs no more than one of ten cells.
+ * The breakpoints of the three rows are merged in order as the row is worked out, so a
+ * generation costs time in proportion to the runs, and nothing is allocated for each row.
+ *
+ * Like World, a RowRunWorld is immutable.
+ */
+public class RowRunWorld
+{
+    public RowRunWorld evolve()
+    {
+        Ints nextRows = new Ints();
+        Ints nextRowOffsets = new Ints();
+        Ints nextRuns = new Ints();
+        long breakpoints = 0;
+        RunCursor north = new RunCursor(runs), middle = new RunCursor(runs), south = new RunCursor(runs);
+
+        int lastRowWorkedOut = Integer.MIN_VALUE;
+        for (int row : rows)
+            for (int candidate = Math.max(row - 1, lastRowWorkedOut + 1); candidate <= row + 1; candidate++)
+            {
+                int runCount = nextRuns.size();
+                breakpoints += nextGenerationOfRow(
+                    cursorOver(candidate - 1, north), cursorOver(candidate, middle), cursorOver(candidate + 1, south), nextRuns);
+                if (nextRuns.size() > runCount)
+                {
+                    nextRows.add(candidate);
+                    nextRowOffsets.add(runCount);
+                }
+                lastRowWorkedOut = candidate;
+            }
+        nextRowOffsets.add(nextRuns.size());
+
+        return new RowRunWorld(nextRows.toArray(), nextRowOffsets.toArray(), nextRuns.toArray(), breakpoints);
+    }
+
+    // Creation Methods ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public static RowRunWorld empty() { return EMPTY; }
+
+    public static RowRunWorld withCellsAt(Location... locations) { return withCellsAt(stream(locations)); }
+
+    public static RowRunWorld withCellsAt(List<Location>... groupsOfLocations) { return withCellsAt(stream(groupsOfLocations).flatMap(List::stream)); }
+
+    public static RowRunWorld of(World world) { return withCellKeys(world.sortedCellKeys()); }
+
+    public World toWorld()
+    {
+        long[] cellKeys = new long[(int) population()];
+        int count = 0;
+        for (int rowIndex = 0; rowIndex < rows.length; rowIndex++)
+            for (int run = rowOffsets[rowIndex]; run < rowOffsets[rowIndex + 1]; run += RUN)
+                for (int column = runs[run]; column < runs[run + 1]; column++)
+                    cellKeys[count++] = CellKeys.keyOf(rows[rowIndex], column);
+        return World.withCellKeys(cellKeys);
+    }
+
+    // Predicates /////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Finds the row, then the last run starting at or before the column, by binary search.
+     */
+    public boolean hasLiveCellAt(Location location)
+    {
+        int rowIndex = Arrays.binarySearch(rows, location.row());
+        if (rowIndex < 0) return false;
+
+        int run = lastRunStartingAtOrBefore(location.column(), rowOffsets[rowIndex], rowOffsets[rowIndex + 1]);
+        return run >= 0 && location.column() < runs[run + 1];
+    }
+
+    public boolean isEmpty()
+    {
+        return rows.length == 0;
+    }
+
+    // Statistics /////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public long population()
+    {
+        long population = 0;
+        for (int run = 0; run < runs.length; run += RUN) population += runs[run + 1] - runs[run];
+        return population;
+    }
+
+    public int rowCount() { return rows.length; }
+
+    public int runCount() { return runs.length / RUN; }
+
+    /**
+     * The number of columns at which rows were worked out when this world was evolved from
+     * the one before it, which measures the work that took whatever the lengths of the runs.
+     * Zero for a world that was not evolved.
+     */
+    public long breakpointsEvaluated() { return breakpointsEvaluated; }
+
+    /**
+     * An estimate of the heap taken by the world: its object and three arrays of ints,
+     * with the 16 byte headers of a 64 bit JVM.
+     */
+    public long estimatedBytes()
+    {
+        return OBJECT_BYTES + 3 * ARRAY_HEADER_BYTES + (long) Integer.BYTES * (rows.length + rowOffsets.length + runs.length);
+    }
+
+    // Overridden Object methods //////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        RowRunWorld world = (RowRunWorld) o;
+
+        return Arrays.equals(rows, world.rows) && Arrays.equals(rowOffsets, world.rowOffsets) && Arrays.equals(runs, world.runs);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * Arrays.hashCode(rows) + Arrays.hashCode(runs);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toWorld().toString();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private ////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    // Member fields //////////////////////////////////////////////////////////////////////////////////////////////
+    private final int[] rows;
+    private final int[] rowOffsets;   // the runs of rows[i] are at runs[rowOffsets[i]] up to runs[rowOffsets[i + 1]]
+    private final int[] runs;         // pairs of the first column of a run and the column after its last
+    private final long breakpointsEvaluated;
+
+    // Constructors ///////////////////////////////////////////////////////////////////////////////////////////////
+    private RowRunWorld(int[] rows, int[] rowOffsets, int[] runs, long breakpointsEvaluated)
+    {
+        this.rows = rows;
+        this.rowOffsets = rowOffsets;
+        this.runs = runs;
+        this.breakpointsEvaluated = breakpointsEvaluated;
+    }
+
+    private static RowRunWorld withCellsAt(Stream<Location> locations)
+    {
+        long[] cellKeys = locations.mapToLong(CellKeys::keyOf).toArray();
+        CellKeys.sortRowMajor(cellKeys);
+        return withCellKeys(cellKeys);
+    }
+
+    /**
+     * Builds the runs from cell keys in row-major order, ignoring repeated keys.
+     */
+    private static RowRunWorld withCellKeys(long[] sortedCellKeys)
+    {
+        Ints rows = new Ints();
+        Ints rowOffsets = new Ints();
+        Ints runs = new Ints();
+        for (int index = 0; index < sortedCellKeys.length; index++)
+        {
+            int row = CellKeys.rowOf(sortedCellKeys[index]);
+            int column = CellKeys.columnOf(sortedCellKeys[index]);
+            boolean sameRow = rows.size() > 0 && rows.last() == row;
+
+            if (!sameRow)
+            {
+                rows.add(row);
+                rowOffsets.add(runs.size());
+            }
+            if (sameRow && column < runs.last()) continue;
+            if (sameRow && column == runs.last())
+                runs.setLast(column + 1);
+            else
+            {
+                runs.add(column);
+                runs.add(column + 1);
+            }
+        }
+        rowOffsets.add(runs.size());
+        return new RowRunWorld(rows.toArray(), rowOffsets.toArray(), runs.toArray(), 0);
+    }
+
+    private int lastRunStartingAtOrBefore(int column, int fromRun, int toRun)
+    {
+        int low = fromRun / RUN;
+        int high = toRun / RUN - 1;
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            if (runs[middle * RUN] <= column) low = middle + 1; else high = middle - 1;
+        }
+        return high < fromRun / RUN ? -1 : high * RUN;
+    }
+
+    // Next Generation of a Row ///////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Appends the runs of the middle row in the next generation, and returns the number of
+     * breakpoints it was worked out at. The window sum of a row, the number of live cells among
+     * a column and the columns either side of it, can only change at a run's first column less
+     * one, its first column, the one after it, and likewise around the column after its last.
+     * Between consecutive breakpoints of the three rows, both the state of the middle row and
+     * the neighbour count are therefore the same all along.
+     */
+    private static int nextGenerationOfRow(RunCursor north, RunCursor middle, RunCursor south, Ints nextRuns)
+    {
+        int firstRunOfRow = nextRuns.size();
+        int breakpoints = 0;
+        int column = nextBreakpointAfter(Integer.MIN_VALUE, north, middle, south);
+        while (column != NO_BREAKPOINT)
+        {
+            int next = nextBreakpointAfter(column, north, middle, south);
+            breakpoints++;
+
+            boolean alive = middle.isLiveAt(column);
+            int neighbours = north.windowSumAt(column) + middle.windowSumAt(column) + south.windowSumAt(column) - (alive ? 1 : 0);
+            if (neighbours == 3 || (alive && neighbours == 2))
+            {
+                int end = next == NO_BREAKPOINT ? column + 1 : next;
+                if (nextRuns.size() > firstRunOfRow && nextRuns.last() == column)
+                    nextRuns.setLast(end);
+                else
+                {
+                    nextRuns.add(column);
+                    nextRuns.add(end);
+                }
+            }
+            column = next;
+        }
+        return breakpoints;
+    }
+
+    private static int nextBreakpointAfter(int column, RunCursor north, RunCursor middle, RunCursor south)
+    {
+        return Math.min(north.nextBreakpointAfter(column), Math.min(middle.nextBreakpointAfter(column), south.nextBreakpointAfter(column)));
+    }
+
+    private RunCursor cursorOver(int row, RunCursor cursor)
+    {
+        int rowIndex = Arrays.binarySearch(rows, row);
+        return rowIndex < 0 ? cursor.over(0, 0) : cursor.over(rowOffsets[rowIndex], rowOffsets[rowIndex + 1]);
+    }
+
+    /**
+     * Answers questions about the cells and breakpoints of one row for columns that never
+     * decrease, moving through the row's runs as it goes, so that a whole row is answered in
+     * one pass. A cursor is pointed at each row in turn, rather than made afresh for each.
+     */
+    private static final class RunCursor
+    {
+        RunCursor(int[] runs)
+        {
+            this.runs = runs;
+        }
+
+        RunCursor over(int fromRun, int toRun)
+        {
+            this.toRun = toRun;
+            this.westRun = fromRun;
+            this.middleRun = fromRun;
+            this.eastRun = fromRun;
+            this.breakpointRun = fromRun;
+            return this;
+        }
+
+        /**
+         * The first breakpoint of the row after the given column, or NO_BREAKPOINT. The runs
+         * are at least a column apart, so a run's breakpoints can only interleave with those
+         * of the runs next to it, and the search stops at the first run that starts too late.
+         */
+        int nextBreakpointAfter(int column)
+        {
+            while (breakpointRun < toRun && runs[breakpointRun + 1] + 1 <= column) breakpointRun += RUN;
+
+            int next = NO_BREAKPOINT;
+            for (int run = breakpointRun; run < toRun && runs[run] - 1 < next; run += RUN)
+                for (int bound = 0; bound < RUN; bound++)
+                    for (int offset = -1; offset <= 1; offset++)
+                    {
+                        int breakpoint = runs[run + bound] + offset;
+                        if (breakpoint > column && breakpoint < next) next = breakpoint;
+                    }
+            return next;
+        }
+
+        boolean isLiveAt(int column)
+        {
+            middleRun = runAtOrAfter(column, middleRun);
+            return isLiveAt(column, middleRun);
+        }
+
+        int windowSumAt(int column)
+        {
+            westRun = runAtOrAfter(column - 1, westRun);
+            eastRun = runAtOrAfter(column + 1, eastRun);
+            int sum = isLiveAt(column) ? 1 : 0;
+            if (isLiveAt(column - 1, westRun)) sum++;
+            if (isLiveAt(column + 1, eastRun)) sum++;
+            return sum;
+        }
+
+        private int runAtOrAfter(int column, int run)
+        {
+            while (run < toRun && runs[run + 1] <= column) run += RUN;
+            return run;
+        }
+
+        private boolean isLiveAt(int column, int run)
+        {
+            return run < toRun && runs[run] <= column;
+        }
+
+        private final int[] runs;
+        private int toRun;
+        private int westRun;
+        private int middleRun;
+        private int eastRun;
+        private int breakpointRun;     // the first run with breakpoints after the last column asked about
+    }
+
+    // Growing Arrays /////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final class Ints
+    {
+        void add(int value)
+        {
+            if (size == values.length) values = Arrays.copyOf(values, 2 * values.length);
+            values[size++] = value;
+        }
+
+        int last() { return values[size - 1]; }
+
+        void setLast(int value) { values[size - 1] = value; }
+
+        int size() { return size; }
+
+        int[] toArray() { return Arrays.copyOf(values, size); }
+
+        private int[] values = new int[16];
+        private int size;
+    }
+
+    // Constants //////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final int RUN = 2;
+    private static final int NO_BREAKPOINT = Integer.MAX_VALUE;
+    private static final long OBJECT_BYTES = 24;
+    private static final long ARRAY_HEADER_BYTES = 16;
+    private static final RowRunWorld EMPTY = new RowRunWorld(new int[0], new int[] { 0 }, new int[0], 0);
+}
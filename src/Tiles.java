@@ -0,0 +1,96 @@
+/**
+ * The plane is divided into 8 x 8 tiles, each of whose cells is held as one bit of a long:
+ * bit (8 * row + column) for the row and column of the cell within the tile.
+ * A tile is identified by a key made from its row and column in the grid of tiles.
+ */
+final class Tiles
+{
+    static long tileKeyOf(int row, int column)
+    {
+        return CellKeys.keyOf(row >> SHIFT, column >> SHIFT);
+    }
+
+    static long maskOf(int row, int column)
+    {
+        return 1L << (((row & LAST) << SHIFT) | (column & LAST));
+    }
+
+    static long neighbourOf(long tileKey, int rowOffset, int columnOffset)
+    {
+        return CellKeys.keyOf(CellKeys.rowOf(tileKey) + rowOffset, CellKeys.columnOf(tileKey) + columnOffset);
+    }
+
+    /**
+     * The key of the cell held in the given bit of the given tile.
+     */
+    static long cellKeyOf(long tileKey, int bit)
+    {
+        int row = (CellKeys.rowOf(tileKey) << SHIFT) | (bit >>> SHIFT);
+        int column = (CellKeys.columnOf(tileKey) << SHIFT) | (bit & LAST);
+        return CellKeys.keyOf(row, column);
+    }
+
+    /**
+     * The cells of a tile that lie within the rectangle with the given outermost rows and columns.
+     */
+    static long maskOfRectangle(long tileKey, int northMostRow, int westMostColumn, int southMostRow, int eastMostColumn)
+    {
+        int firstRow = CellKeys.rowOf(tileKey) << SHIFT;
+        int firstColumn = CellKeys.columnOf(tileKey) << SHIFT;
+        int fromRow = Math.max(northMostRow - firstRow, 0);
+        int toRow = Math.min(southMostRow - firstRow, LAST);
+        int fromColumn = Math.max(westMostColumn - firstColumn, 0);
+        int toColumn = Math.min(eastMostColumn - firstColumn, LAST);
+        if (fromRow > toRow || fromColumn > toColumn) return 0;
+
+        long rows = (-1L << (SIZE * fromRow)) & (-1L >>> (SIZE * (LAST - toRow)));
+        long columns = ((ROW_OF_ONES << fromColumn) & (ROW_OF_ONES >>> (LAST - toColumn))) * FIRST_COLUMN;
+        return rows & columns;
+    }
+
+    /**
+     * An order independent hash of the cells in a tile, so that the hash of a set of
+     * tiles can be kept up to date as individual tiles change.
+     */
+    static int hashOf(long tileKey, long occupancy)
+    {
+        return occupancy == 0 ? 0 : CellKeys.hashOf(CellKeys.mix(tileKey) ^ occupancy);
+    }
+
+    /**
+     * The next generation of the centre tile of a 3 x 3 neighbourhood of tiles.
+     */
+    static long nextGeneration(long northWest, long north, long northEast,
+                               long west,      long centre, long east,
+                               long southWest, long south, long southEast)
+    {
+        long northOfCentre = northward(centre, north);
+        long northOfWest = northward(west, northWest);
+        long northOfEast = northward(east, northEast);
+        long southOfCentre = southward(centre, south);
+        long southOfWest = southward(west, southWest);
+        long southOfEast = southward(east, southEast);
+
+        return LifeRule.nextGeneration(
+            centre,
+            westward(northOfCentre, northOfWest), northOfCentre, eastward(northOfCentre, northOfEast),
+            westward(centre, west),                              eastward(centre, east),
+            westward(southOfCentre, southOfWest), southOfCentre, eastward(southOfCentre, southOfEast));
+    }
+
+    // Each of these gives, at every cell of a tile, the state of that cell's neighbour in one direction.
+
+    private static long northward(long tile, long tileToNorth) { return (tile << 8) | (tileToNorth >>> 56); }
+    private static long southward(long tile, long tileToSouth) { return (tile >>> 8) | (tileToSouth << 56); }
+    private static long westward(long tile, long tileToWest) { return ((tile << 1) & ~FIRST_COLUMN) | ((tileToWest >>> 7) & FIRST_COLUMN); }
+    private static long eastward(long tile, long tileToEast) { return ((tile >>> 1) & ~LAST_COLUMN) | ((tileToEast << 7) & LAST_COLUMN); }
+
+    private Tiles() {}
+
+    static final int SIZE = 8;
+    static final int SHIFT = 3;
+    static final int LAST = SIZE - 1;
+    private static final long FIRST_COLUMN = 0x0101010101010101L;
+    private static final long LAST_COLUMN = 0x8080808080808080L;
+    private static final long ROW_OF_ONES = 0xFFL;
+}
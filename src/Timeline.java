@@ -0,0 +1,329 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A run of a world that can be scrubbed backwards as well as forwards.
+ *
+ * Every keyframeInterval-th generation is stored in full, as a keyframe, and every
+ * generation in between as the cells born and the cells that died on the way to it.
+ * A keyframe and the changes that follow it form a segment. Seeking a generation replays
+ * changes from the start of its segment, or forwards or backwards from the last generation
+ * sought when that is nearer, so no seek replays more than keyframeInterval changes.
+ * Generations beyond the latest one recorded are evolved and recorded on demand. A world
+ * sought has the births and deaths of its generation, as recorded when it was evolved.
+ *
+ * Optionally, all but the most recent segments are written to files in a spill directory,
+ * and read back when one of their generations is sought. Closing the timeline deletes them.
+ */
+public class Timeline implements AutoCloseable
+{
+    // Creation Methods ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public static Timeline startingWith(World world)
+    {
+        return startingWith(world, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    public static Timeline startingWith(World world, int keyframeInterval)
+    {
+        return new Timeline(world, keyframeInterval, NO_SPILL_DIRECTORY, Integer.MAX_VALUE);
+    }
+
+    public static Timeline startingWith(World world, int keyframeInterval, Path spillDirectory, int segmentsKeptInMemory)
+    {
+        return new Timeline(world, keyframeInterval, spillDirectory, segmentsKeptInMemory);
+    }
+
+    // Seeking ////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public World seek(int generation)
+    {
+        if (generation < 0) throw new IllegalArgumentException("There is no generation " + generation);
+
+        long start = System.nanoTime();
+
+        while (latestGeneration < generation) recordNextGeneration();
+        World world = generation == latestGeneration ? latest : replayTo(generation);
+        sought = world;
+        soughtGeneration = generation;
+
+        lastSeekNanos = System.nanoTime() - start;
+        totalSeekNanos += lastSeekNanos;
+        seekCount++;
+        return world;
+    }
+
+    public World latest() { return latest; }
+
+    public int latestGeneration() { return latestGeneration; }
+
+    // Statistics /////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * How long the last seek took, including evolving any generations it had to record.
+     */
+    public long lastSeekNanos() { return lastSeekNanos; }
+
+    public double averageSeekNanos() { return seekCount == 0 ? 0 : (double) totalSeekNanos / seekCount; }
+
+    /**
+     * The encoded size of keyframes and changes, in memory or spilled, averaged over the generations recorded.
+     */
+    public double bytesPerGeneration() { return (double) encodedBytes / (latestGeneration + 1); }
+
+    public long bytesInMemory() { return encodedBytes - spilledBytes; }
+
+    // Closing ////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Deletes the files of the segments spilled so far. Their generations cannot be sought afterwards.
+     */
+    @Override
+    public void close()
+    {
+        for (int index = 0; index < firstSegmentInMemory; index++)
+        {
+            try
+            {
+                Files.deleteIfExists(spillFileFor(index));
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException("Could not delete spilled segment " + index, e);
+            }
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private ////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    // Member fields //////////////////////////////////////////////////////////////////////////////////////////////
+    private final int keyframeInterval;
+    private final Path spillDirectory;
+    private final int segmentsKeptInMemory;
+    private final List<Segment> segments = new ArrayList<>();
+    private int firstSegmentInMemory;
+
+    private World latest;
+    private int latestGeneration;
+    private World sought;
+    private int soughtGeneration;
+    private Segment segmentReadBack;
+    private int segmentReadBackIndex = -1;
+
+    private long encodedBytes;
+    private long spilledBytes;
+    private long lastSeekNanos;
+    private long totalSeekNanos;
+    private int seekCount;
+
+    // Constructors ///////////////////////////////////////////////////////////////////////////////////////////////
+    private Timeline(World world, int keyframeInterval, Path spillDirectory, int segmentsKeptInMemory)
+    {
+        if (keyframeInterval < 1) throw new IllegalArgumentException("Keyframe interval must be positive: " + keyframeInterval);
+        if (segmentsKeptInMemory < 1) throw new IllegalArgumentException("At least one segment must be kept in memory");
+
+        this.keyframeInterval = keyframeInterval;
+        this.spillDirectory = spillDirectory;
+        this.segmentsKeptInMemory = segmentsKeptInMemory;
+        this.latest = world;
+        this.sought = world;
+        startSegmentWith(world);
+    }
+
+    // Recording //////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void recordNextGeneration()
+    {
+        World next = latest.evolve();
+        latestGeneration++;
+
+        if (latestGeneration % keyframeInterval == 0)
+            startSegmentWith(next);
+        else
+            record(changesBetween(latest, next));
+
+        latest = next;
+    }
+
+    private void startSegmentWith(World keyframe)
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CellKeyEncoding.writeSorted(keyframe.sortedCellKeys(), out);
+        segments.add(new Segment(out.toByteArray(), keyframe.births(), keyframe.deaths()));
+        encodedBytes += out.size();
+
+        if (spillDirectory != NO_SPILL_DIRECTORY)
+            while (segments.size() - firstSegmentInMemory > segmentsKeptInMemory)
+                spill(firstSegmentInMemory++);
+    }
+
+    private void record(byte[] changes)
+    {
+        segments.get(segments.size() - 1).changes.add(changes);
+        encodedBytes += changes.length;
+    }
+
+    private static byte[] changesBetween(World world, World next)
+    {
+        long[] born = next.cellsBornSince(world);
+        long[] died = next.cellsDiedSince(world);
+        CellKeys.sortRowMajor(born);
+        CellKeys.sortRowMajor(died);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CellKeyEncoding.writeSorted(born, out);
+        CellKeyEncoding.writeSorted(died, out);
+        return out.toByteArray();
+    }
+
+    // Replaying //////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private World replayTo(int generation)
+    {
+        int segmentIndex = generation / keyframeInterval;
+        int offset = generation % keyframeInterval;
+        Segment segment = segmentAt(segmentIndex);
+
+        boolean soughtIsNearer = soughtGeneration / keyframeInterval == segmentIndex
+                              && Math.abs(generation - soughtGeneration) < offset;
+
+        World world = soughtIsNearer
+            ? replay(segment, sought, soughtGeneration % keyframeInterval, offset)
+            : replay(segment, segment.keyframeWorld(), 0, offset);
+        return withRecordedBirthsAndDeaths(world, segment, offset);
+    }
+
+    /**
+     * The changes at index i of a segment lead from its generation at offset i to the one at offset i + 1.
+     */
+    private static World replay(Segment segment, World world, int fromOffset, int toOffset)
+    {
+        for (int offset = fromOffset; offset < toOffset; offset++)
+        {
+            CellKeyEncoding.Reader changes = new CellKeyEncoding.Reader(segment.changes.get(offset));
+            world = world.withChangesReplayed(changes.readSorted(), changes.readSorted());
+        }
+        for (int offset = fromOffset; offset > toOffset; offset--)
+        {
+            CellKeyEncoding.Reader changes = new CellKeyEncoding.Reader(segment.changes.get(offset - 1));
+            world = world.withChangesUndone(changes.readSorted(), changes.readSorted());
+        }
+        return world;
+    }
+
+    /**
+     * Replaying changes works out the births and deaths of the world it leads to, but
+     * undoing them or rebuilding a keyframe cannot, so they are taken from the record.
+     */
+    private static World withRecordedBirthsAndDeaths(World world, Segment segment, int offset)
+    {
+        if (offset == 0) return world.withBirthsAndDeaths(segment.keyframeBirths, segment.keyframeDeaths);
+
+        CellKeyEncoding.Reader changes = new CellKeyEncoding.Reader(segment.changes.get(offset - 1));
+        int births = changes.readSorted().length;
+        int deaths = changes.readSorted().length;
+        return world.withBirthsAndDeaths(births, deaths);
+    }
+
+    // Spilling ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private Segment segmentAt(int index)
+    {
+        if (index >= firstSegmentInMemory) return segments.get(index);
+
+        if (index != segmentReadBackIndex)
+        {
+            segmentReadBack = readBack(index);
+            segmentReadBackIndex = index;
+        }
+        return segmentReadBack;
+    }
+
+    private void spill(int index)
+    {
+        Segment segment = segments.get(index);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFileFor(index)))))
+        {
+            writeBytes(segment.keyframe, out);
+            out.writeInt(segment.keyframeBirths);
+            out.writeInt(segment.keyframeDeaths);
+            out.writeInt(segment.changes.size());
+            for (byte[] changes : segment.changes) writeBytes(changes, out);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("Could not spill segment " + index, e);
+        }
+        spilledBytes += segment.encodedBytes();
+        segments.set(index, null);
+    }
+
+    private Segment readBack(int index)
+    {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(spillFileFor(index)))))
+        {
+            Segment segment = new Segment(readBytes(in), in.readInt(), in.readInt());
+            for (int count = in.readInt(); count > 0; count--) segment.changes.add(readBytes(in));
+            return segment;
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("Could not read back segment " + index, e);
+        }
+    }
+
+    private Path spillFileFor(int index)
+    {
+        return spillDirectory.resolve("segment-" + index + ".bin");
+    }
+
+    private static void writeBytes(byte[] bytes, DataOutputStream out) throws IOException
+    {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException
+    {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    // Segments ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final class Segment
+    {
+        Segment(byte[] keyframe, int keyframeBirths, int keyframeDeaths)
+        {
+            this.keyframe = keyframe;
+            this.keyframeBirths = keyframeBirths;
+            this.keyframeDeaths = keyframeDeaths;
+        }
+
+        World keyframeWorld()
+        {
+            return World.withCellKeys(new CellKeyEncoding.Reader(keyframe).readSorted());
+        }
+
+        long encodedBytes()
+        {
+            return keyframe.length + changes.stream().mapToLong(bytes -> bytes.length).sum();
+        }
+
+        final byte[] keyframe;
+        final int keyframeBirths;
+        final int keyframeDeaths;
+        final List<byte[]> changes = new ArrayList<>();
+    }
+
+    // Constants //////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final int DEFAULT_KEYFRAME_INTERVAL = 64;
+    private static final Path NO_SPILL_DIRECTORY = null;
+}
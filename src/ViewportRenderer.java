@@ -0,0 +1,286 @@
+import java.util.*;
+
+/**
+ * Renders a rectangle of a world at a zoom level k, where each character stands for a block
+ * of 2^k x 2^k cells and shows how crowded that block is: '_' when it is empty, 'O' when it
+ * is full and '.', ':' or 'o' when it is less than a quarter, less than half or at least half
+ * full. At zoom 0 the output looks just like that of World.toString().
+ *
+ * The populations of blocks larger than a tile come from a pyramid of counts, one map per
+ * zoom level, which is kept up to date as the renderer is shown new worlds. Output is cached
+ * in tiles of 16 x 16 characters, least recently used first out, and when the renderer is
+ * shown a new world only the cached tiles covering cells that changed are thrown away.
+ * Panning across a region that has not changed is therefore served entirely from the cache.
+ */
+public class ViewportRenderer
+{
+    // Creation Methods ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public static ViewportRenderer withCacheOf(int tiles)
+    {
+        return new ViewportRenderer(tiles);
+    }
+
+    // Rendering //////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Renders rows x columns blocks of the world, starting with the block that contains the
+     * given top left location. Blocks are aligned to multiples of their size.
+     */
+    public String render(World world, Location topLeft, int rows, int columns, int zoom)
+    {
+        if (zoom < 0 || zoom > MAX_ZOOM) throw new IllegalArgumentException("Zoom must be between 0 and " + MAX_ZOOM + ": " + zoom);
+
+        show(world);
+        highestZoomCached = Math.max(highestZoomCached, zoom);
+
+        int firstBlockRow = topLeft.row() >> zoom;
+        int firstBlockColumn = topLeft.column() >> zoom;
+        StringBuilder text = new StringBuilder();
+        for (int blockRow = firstBlockRow; blockRow < firstBlockRow + rows; blockRow++)
+        {
+            char[] tile = null;
+            int tileColumn = 0;
+            for (int blockColumn = firstBlockColumn; blockColumn < firstBlockColumn + columns; blockColumn++)
+            {
+                if (tile == null || blockColumn >> TILE_SHIFT != tileColumn)
+                {
+                    tileColumn = blockColumn >> TILE_SHIFT;
+                    tile = renderedTile(new TileId(zoom, blockRow >> TILE_SHIFT, tileColumn));
+                }
+                text.append(tile[((blockRow & TILE_MASK) << TILE_SHIFT) | (blockColumn & TILE_MASK)]);
+            }
+            text.append(NEWLINE);
+        }
+        return text.toString();
+    }
+
+    // Statistics /////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public long cacheHits() { return cacheHits; }
+
+    public long cacheMisses() { return cacheMisses; }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private ////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    // Member fields //////////////////////////////////////////////////////////////////////////////////////////////
+    private final Map<TileId, char[]> renderedTiles;
+    private final List<Map<Long, Integer>> populationPyramid = new ArrayList<>();
+    private World shown = World.empty();
+    private int highestZoomCached;
+    private long cacheHits;
+    private long cacheMisses;
+
+    // Constructors ///////////////////////////////////////////////////////////////////////////////////////////////
+    private ViewportRenderer(int tiles)
+    {
+        if (tiles < 1) throw new IllegalArgumentException("The cache needs room for a tile");
+
+        renderedTiles = new LeastRecentlyUsed<>(tiles);
+    }
+
+    // Changing Worlds ////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void show(World world)
+    {
+        if (world == shown) return;
+
+        shown.cells().forEachTileChangedIn(world.cells(), (tileKey, occupancy, changedOccupancy) -> {
+            updatePyramid(tileKey, Long.bitCount(changedOccupancy) - Long.bitCount(occupancy));
+            forgetTilesCovering(tileKey);
+        });
+        shown = world;
+    }
+
+    private void updatePyramid(long tileKey, int change)
+    {
+        for (int index = 0; index < populationPyramid.size(); index++)
+        {
+            int shift = FIRST_PYRAMID_ZOOM + index - TILE_ZOOM;
+            long blockKey = CellKeys.keyOf(CellKeys.rowOf(tileKey) >> shift, CellKeys.columnOf(tileKey) >> shift);
+            populationPyramid.get(index).merge(blockKey, change, (population, delta) ->
+                population + delta == 0 ? null : population + delta);
+        }
+    }
+
+    /**
+     * A rendered tile at zoom z is 2^(z + 4) cells across, which is 2^(z + 1) world tiles.
+     */
+    private void forgetTilesCovering(long tileKey)
+    {
+        for (int zoom = 0; zoom <= highestZoomCached; zoom++)
+        {
+            int shift = zoom + TILE_SHIFT - TILE_ZOOM;
+            renderedTiles.remove(new TileId(zoom, CellKeys.rowOf(tileKey) >> shift, CellKeys.columnOf(tileKey) >> shift));
+        }
+    }
+
+    // Rendered Tiles /////////////////////////////////////////////////////////////////////////////////////////////
+
+    private char[] renderedTile(TileId id)
+    {
+        char[] tile = renderedTiles.get(id);
+        if (tile != null)
+        {
+            cacheHits++;
+            return tile;
+        }
+
+        cacheMisses++;
+        tile = render(id);
+        renderedTiles.put(id, tile);
+        return tile;
+    }
+
+    private char[] render(TileId id)
+    {
+        char[] tile = new char[TILE_SIZE * TILE_SIZE];
+        if (populationOfBlock(id.zoom + TILE_SHIFT, id.row, id.column) == 0)
+        {
+            Arrays.fill(tile, EMPTY_BLOCK);
+            return tile;
+        }
+
+        for (int row = 0; row < TILE_SIZE; row++)
+            for (int column = 0; column < TILE_SIZE; column++)
+            {
+                int population = populationOfBlock(id.zoom, (id.row << TILE_SHIFT) | row, (id.column << TILE_SHIFT) | column);
+                tile[(row << TILE_SHIFT) | column] = characterFor(population, id.zoom);
+            }
+        return tile;
+    }
+
+    private static char characterFor(int population, int zoom)
+    {
+        long capacity = 1L << (2 * zoom);
+        if (population == 0) return EMPTY_BLOCK;
+        if (population == capacity) return FULL_BLOCK;
+        if (4L * population < capacity) return SPARSE_BLOCK;
+        if (2L * population < capacity) return THIN_BLOCK;
+        return CROWDED_BLOCK;
+    }
+
+    // Block Populations //////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Blocks up to the size of a world tile are counted from the tile's occupancy,
+     * larger ones are looked up in the pyramid.
+     */
+    private int populationOfBlock(int zoom, int blockRow, int blockColumn)
+    {
+        if (zoom >= FIRST_PYRAMID_ZOOM)
+            return pyramidLevel(zoom).getOrDefault(CellKeys.keyOf(blockRow, blockColumn), 0);
+
+        int row = blockRow << zoom;
+        int column = blockColumn << zoom;
+        long occupancy = shown.cells().tileAt(Tiles.tileKeyOf(row, column));
+        if (zoom == TILE_ZOOM) return Long.bitCount(occupancy);
+
+        int side = 1 << zoom;
+        long blockMask = 0;
+        for (int rowInBlock = 0; rowInBlock < side; rowInBlock++)
+            blockMask |= Tiles.maskOf(row + rowInBlock, column) * ((1L << side) - 1);
+        return Long.bitCount(occupancy & blockMask);
+    }
+
+    private Map<Long, Integer> pyramidLevel(int zoom)
+    {
+        if (populationPyramid.isEmpty())
+        {
+            Map<Long, Integer> blocks = new HashMap<>();
+            shown.cells().forEachTile((tileKey, occupancy) ->
+                blocks.merge(parentOf(tileKey), Long.bitCount(occupancy), Integer::sum));
+            populationPyramid.add(blocks);
+        }
+        while (populationPyramid.size() <= zoom - FIRST_PYRAMID_ZOOM)
+        {
+            Map<Long, Integer> blocks = new HashMap<>();
+            populationPyramid.get(populationPyramid.size() - 1).forEach((blockKey, population) ->
+                blocks.merge(parentOf(blockKey), population, Integer::sum));
+            populationPyramid.add(blocks);
+        }
+        return populationPyramid.get(zoom - FIRST_PYRAMID_ZOOM);
+    }
+
+    private static long parentOf(long blockKey)
+    {
+        return CellKeys.keyOf(CellKeys.rowOf(blockKey) >> 1, CellKeys.columnOf(blockKey) >> 1);
+    }
+
+    // The Cache //////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * A map that keeps its entries in order of use and lets the least recently used one go
+     * when it grows beyond its capacity.
+     */
+    private static final class LeastRecentlyUsed<K, V> extends LinkedHashMap<K, V>
+    {
+        LeastRecentlyUsed(int capacity)
+        {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest)
+        {
+            return size() > capacity;
+        }
+
+        private final int capacity;
+        private static final long serialVersionUID = 1L;
+    }
+
+    // Tile Identities ////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final class TileId
+    {
+        TileId(int zoom, int row, int column)
+        {
+            this.zoom = zoom;
+            this.row = row;
+            this.column = column;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            TileId tileId = (TileId) o;
+
+            return zoom == tileId.zoom && row == tileId.row && column == tileId.column;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int result = zoom;
+            result = 31 * result + row;
+            result = 31 * result + column;
+            return result;
+        }
+
+        final int zoom;
+        final int row;
+        final int column;
+    }
+
+    // Constants //////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final int MAX_ZOOM = 24;
+    private static final int TILE_ZOOM = 3;
+    private static final int FIRST_PYRAMID_ZOOM = TILE_ZOOM + 1;
+    private static final int TILE_SHIFT = 4;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    private static final char EMPTY_BLOCK = '_';
+    private static final char SPARSE_BLOCK = '.';
+    private static final char THIN_BLOCK = ':';
+    private static final char CROWDED_BLOCK = 'o';
+    private static final char FULL_BLOCK = 'O';
+    private static final String NEWLINE = System.getProperty("line.separator");
+}
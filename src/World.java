@@ -3,45 +3,115 @@
  */
 
 import java.util.*;
-import java.util.function.BinaryOperator;
-import java.util.function.Function;
-import java.util.function.Predicate;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
-import static java.util.Arrays.*;
-import static java.util.stream.Collectors.joining;
-import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toSet;
+import static java.util.Arrays.stream;
 
 public class World
 {
+    /**
+     * A tile can only change if it, or one of its neighbours, changed in the generation
+     * that produced this world, so only those tiles are recomputed. Every other tile,
+     * and every trie node holding only such tiles, is shared with this world.
+     */
     public World evolve()
     {
-        return new World( locationsOfSurvivingCells(), locationsOfNewbornCells() );
+        long[] tilesThatMayChange = tilesThatMayChange();
+        Changes changes = new Changes(tilesThatMayChange.length);
+
+        for (int index = 0; index < tilesThatMayChange.length; index++)
+        {
+            long tileKey = tilesThatMayChange[index];
+            if (index > 0 && tileKey == tilesThatMayChange[index - 1]) continue;
+
+            long occupancy = cells.tileAt(tileKey);
+            long nextOccupancy = nextGenerationOf(tileKey, occupancy);
+            if (nextOccupancy != occupancy) changes.record(tileKey, occupancy, nextOccupancy);
+        }
+
+        return changes.applied(CHANGES_FORM_A_GENERATION);
     }
 
     // Creation Methods ///////////////////////////////////////////////////////////////////////////////////////////
 
-    public static World empty() { return new World(); }
+    public static World empty() { return new World(PersistentCellSet.EMPTY, 0, NO_TILES, 0, 0, BoundingBox.NONE, LineCounts.NONE); }
 
-    public static World withCellsAt(Location... locations) { return new World(Arrays.asList(locations)); }
+    public static World withCellsAt(Location... locations) { return withCellsAt(stream(locations)); }
 
-    public static World withCellsAt(List<Location>... groupsOfLocations) { return new World(groupsOfLocations); }
+    public static World withCellsAt(List<Location>... groupsOfLocations) { return withCellsAt(stream(groupsOfLocations).flatMap(List::stream)); }
 
     // Predicates /////////////////////////////////////////////////////////////////////////////////////////////////
 
     public boolean hasLiveCellAt(Location location)
     {
-        return liveCellLocations.contains(location);
+        return cells.contains(location.row(), location.column());
     }
 
     public boolean isEmpty()
     {
-        return liveCellLocations.isEmpty();
+        return cells.isEmpty();
+    }
+
+    // Looking Ahead //////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Whether there will be a live cell at the location the given number of generations from
+     * now, worked out from the cells within that distance of it alone (see LightCone).
+     */
+    public boolean hasLiveCellAt(Location location, int generationsFromNow)
+    {
+        return regionAfter(generationsFromNow, location, location).hasLiveCellAt(location);
+    }
+
+    /**
+     * The live cells within the rectangle with the given corners, as they will be the given
+     * number of generations from now, in a world that holds nothing else.
+     */
+    public World regionAfter(int generations, Location northWestCorner, Location southEastCorner)
+    {
+        return LightCone.regionAfter(this, generations, northWestCorner, southEastCorner);
+    }
+
+    // Statistics /////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public int population()
+    {
+        return cells.population();
     }
 
+    /**
+     * The number of cells born on the way to this world from the one it evolved from.
+     * Every cell of a newly created world counts as born. A world sought in a Timeline has
+     * the births and deaths recorded for its generation, however it was reached.
+     */
+    public int births()
+    {
+        return births;
+    }
+
+    /**
+     * The number of cells that died on the way to this world from the one it evolved from.
+     */
+    public int deaths()
+    {
+        return deaths;
+    }
+
+    public int northMostRow() { return extent().northMostRow; }
+
+    public int southMostRow() { return extent().southMostRow; }
+
+    public int westMostColumn() { return extent().westMostColumn; }
+
+    public int eastMostColumn() { return extent().eastMostColumn; }
+
     // Overridden Object methods //////////////////////////////////////////////////////////////////////////////////
 
+    /**
+     * Two worlds are compared by their cached hash and population first. The cell sets
+     * are hash-consed, so when both match the sets are equal only if they share a root.
+     */
     @Override
     public boolean equals(Object o)
     {
@@ -50,235 +120,339 @@ public class World
 
         World world = (World) o;
 
-        return liveCellLocations.equals(world.liveCellLocations);
-
+        if (hash != world.hash) return false;
+        if (cells.population() != world.cells.population()) return false;
+        return cells.equals(world.cells);
     }
 
     @Override
     public int hashCode()
     {
-        return liveCellLocations.hashCode();
+        return hash;
     }
 
     @Override
     public String toString()
     {
-        return toString( buildGridOfLocations() );
+        return isEmpty() ? NOTHING_TO_DISPLAY : toString( sortedCellKeys(), extent() );
     }
 
-    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
-    // Private ////////////////////////////////////////////////////////////////////////////////////////////////////
-    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
-
-    // Member fields //////////////////////////////////////////////////////////////////////////////////////////////
-    private final HashSet<Location> liveCellLocations;
-
-    // Constructors ///////////////////////////////////////////////////////////////////////////////////////////////
-    private World(List<Location>... groupsOfLocations){
-
-        liveCellLocations = new HashSet<>();
+    // Snapshots //////////////////////////////////////////////////////////////////////////////////////////////////
 
-        stream(groupsOfLocations)
-                .flatMap(List::stream)
-                .forEach(liveCellLocations::add);
+    /**
+     * The keys of the live cells in row-major order, worked out on first use so that worlds
+     * kept only as history never pay for them. The array is shared, not copied, so callers
+     * must not modify it.
+     */
+    long[] sortedCellKeys()
+    {
+        long[] keys = sortedCellKeys;
+        if (keys == null)
+        {
+            keys = cellKeysOf(cells);
+            CellKeys.sortRowMajor(keys);
+            sortedCellKeys = keys;
+        }
+        return keys;
     }
 
-    // Location of Surviving Cells ////////////////////////////////////////////////////////////////////////////////
-
-    private List<Location> locationsOfSurvivingCells()
+    PersistentCellSet cells()
     {
-        return liveCellLocations
-          .stream()
-          .filter(aCellWillSurviveAt)
-          .collect(toList());
+        return cells;
     }
 
-    private Predicate<Location> aCellWillSurviveAt = location ->
-        NEIGHBOUR_COUNTS_ALLOWING_SURVIVAL.contains(
-            countOfNeighbouringCellsAt(location));
-
-    private long countOfNeighbouringCellsAt(Location location)
+    LineCounts lineCounts()
     {
-        return neighboursOf(location)
-                .stream()
-                .filter(isPopulated)
-                .count();
+        return lineCounts;
     }
 
-    // Locations of Newborn Cells /////////////////////////////////////////////////////////////////////////////////
-
-    private List<Location> locationsOfNewbornCells() {
-      return
-        liveCellLocations.stream().flatMap( l1 ->
-          liveCellLocations.stream().flatMap( l2 ->
-            liveCellLocations.stream().flatMap( l3 ->
-              areInNeighbourhoodOfSomeCell(l1, l2, l3)
-              ? emptyLocationsWithLiveNeighboursInAllAndOnlyLocations(l1, l2, l3)
-              : Stream.empty())))
-        .collect(toList());
+    BoundingBox boundingBox()
+    {
+        return isEmpty() ? BoundingBox.NONE : extent();
     }
 
-    private boolean areInNeighbourhoodOfSomeCell(Location... locations) {
-      return distinct(locations) && distantAtMostOneCell(locations);
+    static World withCellKeys(long[] cellKeys)
+    {
+        return empty().changedBy(cellKeys, NO_CELLS, CHANGES_FORM_A_GENERATION);
     }
 
-    private boolean distinct(Location... locations) {
-        long numberOfLocations = locations.length;
-        long numberOfDistinctLocations = stream(locations).distinct().count();
-        return numberOfDistinctLocations == numberOfLocations;
-    }
+    // Changes Between Generations ////////////////////////////////////////////////////////////////////////////////
 
-    private boolean distantAtMostOneCell(Location... locations) {
-      return
-        stream(locations).allMatch( l1 ->
-          stream(locations).allMatch( l2 ->
-            l1.distanceFrom(l2) <= 2));
+    /**
+     * The keys of the cells that are live in this world but not in the previous one, which
+     * must be the world this one was evolved or replayed from. Only recently changed tiles
+     * are examined, so the cost is proportional to the size of the change.
+     */
+    long[] cellsBornSince(World previous)
+    {
+        return cellsLiveOnlyInFirst(this, previous, tilesChangedSince(previous));
     }
 
-    private Stream<Location> emptyLocationsWithLiveNeighboursInAllAndOnlyLocations(Location... locations) {
-        return
-            emptyLocationsThatAreSharedNeighboursOf(locations)
-            .stream()
-            .filter(hasNeighbouringLiveCellsInAllAndOnlyThese(locations));
+    long[] cellsDiedSince(World previous)
+    {
+        return cellsLiveOnlyInFirst(previous, this, tilesChangedSince(previous));
+    }
 
+    /**
+     * The next generation, rebuilt from its births and deaths rather than evolved.
+     */
+    World withChangesReplayed(long[] bornCellKeys, long[] deadCellKeys)
+    {
+        return changedBy(bornCellKeys, deadCellKeys, CHANGES_FORM_A_GENERATION);
     }
 
-    private List<Location> emptyLocationsThatAreSharedNeighboursOf(Location[] locations)
+    /**
+     * The previous generation, given the births and deaths that led to this one. Which tiles
+     * changed on the way to the previous generation is not known, so evolving the result
+     * recomputes all of its tiles once. Nor are its own births and deaths known, so they are
+     * zero until given with withBirthsAndDeaths.
+     */
+    World withChangesUndone(long[] bornCellKeys, long[] deadCellKeys)
     {
-        return
-            stream(locations)
-            .map(emptyLocationsThatAreNeighboursOf)
-            .reduce(intersection)
-            .orElseGet(Collections::emptyList);
+        return changedBy(deadCellKeys, bornCellKeys, !CHANGES_FORM_A_GENERATION);
     }
 
-    private Predicate<Location> isPopulated = this::hasLiveCellAt;
-    private Predicate<Location> isNotPopulated =  isPopulated.negate();
+    /**
+     * This world, with the births and deaths recorded for it when it was first evolved, for
+     * worlds rebuilt from stored cells or by undoing changes, which cannot work them out.
+     */
+    World withBirthsAndDeaths(int births, int deaths)
+    {
+        if (births == this.births && deaths == this.deaths) return this;
+        return new World(cells, hash, recentlyChangedTiles, births, deaths, boundingBox, lineCounts);
+    }
 
-    private Function<Location,List<Location>> emptyLocationsThatAreNeighboursOf = location ->
-            neighboursOf(location)
-            .stream()
-            .filter(isNotPopulated)
-            .collect(toList());
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private ////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
-    private BinaryOperator<List<Location>> intersection = (xs, ys) ->
-        xs.stream().filter(ys::contains).collect(toList());
+    // Member fields //////////////////////////////////////////////////////////////////////////////////////////////
+    private final PersistentCellSet cells;
+    private final int hash;
+    private final long[] recentlyChangedTiles;   // UNKNOWN_TILES if it is not known which tiles changed
+    private final int births;
+    private final int deaths;
+    private final BoundingBox boundingBox;
+    private final LineCounts lineCounts;
+    // Filled in lazily, possibly by several threads at once (see Pipeline); volatile so that a thread that sees
+    // the array also sees its contents.
+    private volatile long[] sortedCellKeys;
 
-    private Predicate<Location> hasNeighbouringLiveCellsInAllAndOnlyThese(Location... locations) {
-        return location -> areTheSameLocations(liveNeighboursOf(location), locations);
+    // Constructors ///////////////////////////////////////////////////////////////////////////////////////////////
+    private World(PersistentCellSet cells, int hash, long[] recentlyChangedTiles, int births, int deaths, BoundingBox boundingBox,
+                  LineCounts lineCounts)
+    {
+        this.cells = cells;
+        this.hash = hash;
+        this.recentlyChangedTiles = recentlyChangedTiles;
+        this.births = births;
+        this.deaths = deaths;
+        this.boundingBox = boundingBox;
+        this.lineCounts = lineCounts;
     }
 
-    private boolean areTheSameLocations(List<Location> locations, Location[] otherLocations)
+    /**
+     * All the tiles of a newly created world count as recently changed.
+     */
+    private static World withCellsAt(Stream<Location> locations)
     {
-        Set<Location> setOne = new HashSet<>(locations);
-        Set<Location> setTwo = stream(otherLocations).collect(toSet());
-        return setOne.equals(setTwo);
+        long[] cellKeys = locations.mapToLong(CellKeys::keyOf).toArray();
+        return empty().changedBy(cellKeys, NO_CELLS, CHANGES_FORM_A_GENERATION);
     }
 
-    private List<Location> liveNeighboursOf(Location location) {
-        return
-            neighboursOf(location)
-            .stream()
-            .filter(isPopulated)
-            .collect(toList());
+    private World changedBy(long[] cellsToRevive, long[] cellsToKill, boolean changesFormAGeneration)
+    {
+        Map<Long, Long> occupancyOfChangedTiles = new HashMap<>();
+        for (long cellKey : cellsToRevive)
+            occupancyOfChangedTiles.compute(tileKeyOf(cellKey), (tileKey, occupancy) ->
+                occupancyOf(tileKey, occupancy) | maskOf(cellKey));
+        for (long cellKey : cellsToKill)
+            occupancyOfChangedTiles.compute(tileKeyOf(cellKey), (tileKey, occupancy) ->
+                occupancyOf(tileKey, occupancy) & ~maskOf(cellKey));
+
+        Changes changes = new Changes(occupancyOfChangedTiles.size());
+        occupancyOfChangedTiles.forEach((tileKey, changedOccupancy) -> {
+            long occupancy = cells.tileAt(tileKey);
+            if (changedOccupancy != occupancy) changes.record(tileKey, occupancy, changedOccupancy);
+        });
+        return changes.applied(changesFormAGeneration);
     }
 
-    private List<Location> neighboursOf(Location location) {
-      return asList(
-          location.northWest(), location.north(), location.northEast(),
-          location.west(),      /*  location  */  location.east(),
-          location.southWest(), location.south(), location.southEast());
+    /**
+     * Tallies the tiles that change on the way from this world to another, so that the other
+     * world's hash, births, deaths and bounding box come out of the same pass as its cells.
+     * The bounding box is read off the counts of live cells per row and column, which are
+     * derived from this world's by changing only the lines of the changed tiles, so that a box
+     * whose edge cells die shrinks without a scan of the whole world.
+     */
+    private final class Changes
+    {
+        Changes(int expectedTileCount)
+        {
+            changedTiles = new long[expectedTileCount];
+        }
+
+        void record(long tileKey, long occupancy, long changedOccupancy)
+        {
+            long born = changedOccupancy & ~occupancy;
+            long died = occupancy & ~changedOccupancy;
+
+            changedCells = changedCells.withTile(tileKey, changedOccupancy);
+            changedHash += Tiles.hashOf(tileKey, changedOccupancy) - Tiles.hashOf(tileKey, occupancy);
+            births += Long.bitCount(born);
+            deaths += Long.bitCount(died);
+            lineChanges.record(tileKey, occupancy, changedOccupancy);
+
+            if (changedTileCount == changedTiles.length) changedTiles = Arrays.copyOf(changedTiles, 2 * changedTileCount + 1);
+            changedTiles[changedTileCount++] = tileKey;
+        }
+
+        World applied(boolean changesFormAGeneration)
+        {
+            LineCounts changedLineCounts = lineCounts.changedBy(lineChanges);
+            BoundingBox changedBoundingBox = changedLineCounts.boundingBox();
+            return changesFormAGeneration
+                ? new World(changedCells, changedHash, Arrays.copyOf(changedTiles, changedTileCount), births, deaths,
+                            changedBoundingBox, changedLineCounts)
+                : new World(changedCells, changedHash, UNKNOWN_TILES, 0, 0, changedBoundingBox, changedLineCounts);
+        }
+
+        private PersistentCellSet changedCells = cells;
+        private int changedHash = hash;
+        private long[] changedTiles;
+        private int changedTileCount;
+        private int births;
+        private int deaths;
+        private final LineCounts.Changes lineChanges = new LineCounts.Changes();
     }
 
-    // Displaying Worlds ///////////////////////////////////////////////////////////////////////////////////////////////
-
-    private String toString(List<List<Location>> grid)
+    private BoundingBox extent()
     {
-        return grid
-                .stream()
-                .map(convertRowOfLocationsToString)
-                .collect(joining());
+        if (isEmpty()) throw new NoSuchElementException("An empty world has no extent");
+        return boundingBox;
     }
 
-    private Function<List<Location>, String> convertRowOfLocationsToString = row ->
-        row.stream()
-                .map(location -> liveCellPresentAt(location) ? "O" : "_")
-                .collect(joining(NO_DELIMITER, NO_PREFIX, NEWLINE_SUFFIX));
-
-    private boolean liveCellPresentAt(Location location)
+    private long occupancyOf(long tileKey, Long changedOccupancy)
     {
-        return hasLiveCellAt(location);
+        return changedOccupancy == null ? cells.tileAt(tileKey) : changedOccupancy;
     }
 
-    private List<List<Location>> buildGridOfLocations()
+    private static long tileKeyOf(long cellKey) { return Tiles.tileKeyOf(CellKeys.rowOf(cellKey), CellKeys.columnOf(cellKey)); }
+
+    private static long maskOf(long cellKey) { return Tiles.maskOf(CellKeys.rowOf(cellKey), CellKeys.columnOf(cellKey)); }
+
+    private long[] tilesChangedSince(World previous)
     {
-        List<Location> northMostFirst = liveCellLocations.stream().sorted().collect(toList());
-        Location northMost = northMostFirst.get(0);
-        Location southMost = northMostFirst.get(northMostFirst.size()-1);
+        if (recentlyChangedTiles != UNKNOWN_TILES) return recentlyChangedTiles;
 
-        List<Location> westMostFirst = liveCellLocations.stream().sorted(byWestMostFirst).collect(toList());
-        Location westMost = westMostFirst.get(0);
-        Location eastMost = westMostFirst.get(westMostFirst.size() - 1);
+        long[] tiles = LongStream.concat(stream(tileKeysOf(cells)), stream(tileKeysOf(previous.cells))).toArray();
+        CellKeys.sortRowMajor(tiles);
+        return stream(tiles).distinct().toArray();
+    }
 
-        Location topLeft = getTopLeft(northMost, westMost);
-        Location topRight = getTopRight(northMost, eastMost);
-        Location bottomLeft = getBottomLeft(northMost, southMost);
+    private static long[] cellsLiveOnlyInFirst(World first, World second, long[] tiles)
+    {
+        long[] keys = new long[Tiles.SIZE * Tiles.SIZE * tiles.length];
+        int count = 0;
+        for (long tileKey : tiles)
+            for (long remaining = first.cells.tileAt(tileKey) & ~second.cells.tileAt(tileKey); remaining != 0; remaining &= remaining - 1)
+                keys[count++] = Tiles.cellKeyOf(tileKey, Long.numberOfTrailingZeros(remaining));
+        return Arrays.copyOf(keys, count);
+    }
 
-        List<Location> topRow = topRowWith(topLeft, topRight);
+    private static long[] tileKeysOf(PersistentCellSet cells)
+    {
+        long[] tileKeys = new long[cells.tileCount()];
+        int[] count = {0};
+        cells.forEachTile((tileKey, occupancy) -> tileKeys[count[0]++] = tileKey);
+        return tileKeys;
+    }
 
-        return gridWith(topRow, topLeft, bottomLeft);
+    private static long[] cellKeysOf(PersistentCellSet cells)
+    {
+        long[] keys = new long[cells.population()];
+        int[] count = {0};
+        cells.forEachTile((tileKey, occupancy) -> {
+            for (long remaining = occupancy; remaining != 0; remaining &= remaining - 1)
+                keys[count[0]++] = Tiles.cellKeyOf(tileKey, Long.numberOfTrailingZeros(remaining));
+        });
+        return keys;
     }
 
-    private static final Comparator<? super Location> byWestMostFirst = (aLocation, anotherLocation) ->
-        aLocation.isWestOf(anotherLocation)
-        ? -1
-        : (aLocation.isEastOf(anotherLocation)
-           ? 1
-           : 0);
+    // Tiles that May Change //////////////////////////////////////////////////////////////////////////////////////
 
-    private static final Location getBottomLeft(Location northMost, Location southMost)
+    /**
+     * The recently changed tiles and their neighbours, sorted, with duplicates left adjacent.
+     * When it is not known which tiles changed recently, all of them are taken to have changed.
+     */
+    private long[] tilesThatMayChange()
     {
-        return Stream.iterate(northMost,Location::south)
-                .filter(location -> !southMost.isSouthOf(location))
-                .findFirst()
-                .get();
+        long[] changedTiles = recentlyChangedTiles != UNKNOWN_TILES ? recentlyChangedTiles : tileKeysOf(cells);
+        long[] tiles = new long[NEIGHBOURHOOD_SIZE * changedTiles.length];
+        int count = 0;
+        for (long tileKey : changedTiles)
+            for (int rowOffset = -1; rowOffset <= 1; rowOffset++)
+                for (int columnOffset = -1; columnOffset <= 1; columnOffset++)
+                    tiles[count++] = Tiles.neighbourOf(tileKey, rowOffset, columnOffset);
+        CellKeys.sortRowMajor(tiles);
+        return tiles;
     }
-    private static final Location getTopRight(Location northMost, Location eastMost)
+
+    // Next Generation of a Tile //////////////////////////////////////////////////////////////////////////////////
+
+    private long nextGenerationOf(long tileKey, long occupancy)
     {
-        return Stream.iterate(northMost,Location::east)
-                .filter(location -> !eastMost.isEastOf(location))
-                .findFirst()
-                .get();
+        return Tiles.nextGeneration(
+            tileNeighbouring(tileKey, -1, -1), tileNeighbouring(tileKey, -1, 0), tileNeighbouring(tileKey, -1, +1),
+            tileNeighbouring(tileKey,  0, -1), occupancy,                         tileNeighbouring(tileKey,  0, +1),
+            tileNeighbouring(tileKey, +1, -1), tileNeighbouring(tileKey, +1, 0), tileNeighbouring(tileKey, +1, +1));
     }
-    private static final Location getTopLeft(Location northMost, Location westMost)
+
+    private long tileNeighbouring(long tileKey, int rowOffset, int columnOffset)
     {
-        return Stream.iterate(northMost,Location::west)
-                .filter(location -> !westMost.isWestOf(location))
-                .findFirst()
-                .get();
+        return cells.tileAt(Tiles.neighbourOf(tileKey, rowOffset, columnOffset));
     }
 
-    private static final List<List<Location>> gridWith(List<Location> topRow, Location topLeft, Location bottomLeft)
+    // Displaying Worlds ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Renders the bounding box of the live cells one row at a time, walking the
+     * row-major sorted keys once rather than testing every location in the box.
+     */
+    private static String toString(long[] sortedCellKeys, BoundingBox box)
     {
-        int rowCount = topLeft.equals(bottomLeft) ? 1 : topLeft.distanceFrom(bottomLeft) + 1;
-        return Stream.iterate(topRow,
-                              row -> row.stream().map(Location::south).collect(toList()))
-                .limit(rowCount)
-                .collect(toList());
+        StringBuilder text = new StringBuilder();
+        int next = 0;
+        for (int row = box.northMostRow; row <= box.southMostRow; row++)
+        {
+            int column = box.westMostColumn;
+            while (next < sortedCellKeys.length && CellKeys.rowOf(sortedCellKeys[next]) == row)
+            {
+                int liveCellColumn = CellKeys.columnOf(sortedCellKeys[next++]);
+                appendDeadCells(text, column, liveCellColumn);
+                text.append(LIVE_CELL);
+                column = liveCellColumn + 1;
+            }
+            appendDeadCells(text, column, box.eastMostColumn + 1);
+            text.append(NEWLINE_SUFFIX);
+        }
+        return text.toString();
     }
 
-    private static final List<Location> topRowWith(Location topLeft, Location topRight)
+    private static void appendDeadCells(StringBuilder text, int fromColumn, int toColumn)
     {
-        int columnCount = topLeft.equals(topRight) ? 1 : topLeft.distanceFrom(topRight) + 1;
-        return Stream.iterate(topLeft,Location::east)
-                .limit(columnCount)
-                .collect(toList());
+        for (int column = fromColumn; column < toColumn; column++) text.append(DEAD_CELL);
     }
 
     // Constants //////////////////////////////////////////////////////////////////////////////////////////////////
 
-    private static final List<Long> NEIGHBOUR_COUNTS_ALLOWING_SURVIVAL = asList(2L,3L);
+    private static final long[] NO_TILES = new long[0];
+    private static final long[] UNKNOWN_TILES = null;
+    private static final long[] NO_CELLS = new long[0];
+    private static final boolean CHANGES_FORM_A_GENERATION = true;
+    private static final int NEIGHBOURHOOD_SIZE = 9;
     private static final String NEWLINE_SUFFIX = System.getProperty("line.separator");
-    private static final String NO_PREFIX = "";
-    private static final String NO_DELIMITER = "";
+    private static final String NOTHING_TO_DISPLAY = "";
+    private static final char LIVE_CELL = 'O';
+    private static final char DEAD_CELL = '_';
 }
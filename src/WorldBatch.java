@@ -0,0 +1,214 @@
+import java.util.List;
+
+/**
+ * Evolves up to 64 small worlds at once, for searches that try out many soups. The worlds
+ * are bounded: each has the same rows x columns of cells, starting at row 0 and column 0,
+ * and cells outside those bounds are dead and stay dead.
+ *
+ * The worlds are bit-sliced: each cell of the bounds is held as one long, whose bit i is the
+ * state of that cell in world i, or lane i. The rules of life are applied with the bitwise
+ * adders of LifeRule, which treat each bit on its own, so the 64 lanes evolve independently
+ * at the cost of one. A frame of dead cells around the bounds lets every cell read its eight
+ * neighbours without checking whether it is on an edge.
+ *
+ * Unlike a World, a batch is changed in place as it evolves.
+ */
+public class WorldBatch
+{
+    public static final int MAX_LANES = Long.SIZE;
+
+    // Creation Methods ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * A batch holding the given worlds in lanes 0 onwards, and empty worlds in any lanes left over.
+     */
+    public static WorldBatch of(int rows, int columns, List<World> worlds)
+    {
+        if (worlds.size() > MAX_LANES) throw new IllegalArgumentException("A batch holds at most " + MAX_LANES + " worlds: " + worlds.size());
+
+        WorldBatch batch = new WorldBatch(rows, columns);
+        for (int lane = 0; lane < worlds.size(); lane++) batch.add(lane, worlds.get(lane));
+        batch.lanesInUse = worlds.size();
+        return batch;
+    }
+
+    // Evolving ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public void evolve()
+    {
+        long start = System.nanoTime();
+
+        for (int row = 0; row < rows; row++)
+        {
+            int cell = indexOf(row, 0);
+            for (int column = 0; column < columns; column++, cell++)
+                nextCells[cell] = LifeRule.nextGeneration(
+                    cells[cell],
+                    cells[cell - width - 1], cells[cell - width], cells[cell - width + 1],
+                    cells[cell - 1],                              cells[cell + 1],
+                    cells[cell + width - 1], cells[cell + width], cells[cell + width + 1]);
+        }
+        long[] previousCells = cells;
+        cells = nextCells;
+        nextCells = previousCells;
+
+        evolvingNanos += System.nanoTime() - start;
+        generationsEvolved++;
+    }
+
+    public void evolve(int generations)
+    {
+        for (int generation = 0; generation < generations; generation++) evolve();
+    }
+
+    // Lanes //////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public World lane(int lane)
+    {
+        long mask = maskOf(lane);
+        long[] cellKeys = new long[population(lane)];
+        int count = 0;
+        for (int row = 0; row < rows; row++)
+            for (int column = 0; column < columns; column++)
+                if ((cells[indexOf(row, column)] & mask) != 0) cellKeys[count++] = CellKeys.keyOf(row, column);
+        return World.withCellKeys(cellKeys);
+    }
+
+    public int population(int lane)
+    {
+        long mask = maskOf(lane);
+        int population = 0;
+        for (long cell : cells)
+            if ((cell & mask) != 0) population++;
+        return population;
+    }
+
+    /**
+     * The lanes with live cells, as the bits of a long, so that a search can tell which
+     * of its worlds have died out without unpacking them.
+     */
+    public long liveLanes()
+    {
+        long live = 0;
+        for (long cell : cells) live |= cell;
+        return live;
+    }
+
+    // Statistics /////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Generations evolved by the worlds the batch was made with, per second spent evolving.
+     */
+    public double worldGenerationsPerSecond()
+    {
+        return evolvingNanos == 0 ? 0 : generationsEvolved * lanesInUse * 1e9 / evolvingNanos;
+    }
+
+    /**
+     * Evolves the given worlds for the given number of generations, once in a batch and once
+     * one at a time, and reports the throughput of each. Evolving one at a time cuts each
+     * generation off at the bounds of the batch, through World.regionAfter, so that both
+     * work out the same worlds; and each way is run once untimed first, so that neither is
+     * timed while the JIT is still compiling it.
+     */
+    public static Throughput throughputAgainstOneAtATime(int rows, int columns, List<World> worlds, int generations)
+    {
+        of(rows, columns, worlds).evolve(generations);
+        evolveOneAtATime(rows, columns, worlds, generations);
+
+        WorldBatch batch = of(rows, columns, worlds);
+        batch.evolve(generations);
+        double batched = batch.worldGenerationsPerSecond();
+
+        long start = System.nanoTime();
+        evolveOneAtATime(rows, columns, worlds, generations);
+        double oneAtATime = (double) worlds.size() * generations * 1e9 / (System.nanoTime() - start);
+
+        return new Throughput(batched, oneAtATime);
+    }
+
+    public static final class Throughput
+    {
+        public double batchedWorldGenerationsPerSecond() { return batched; }
+
+        public double oneAtATimeWorldGenerationsPerSecond() { return oneAtATime; }
+
+        public double speedUp() { return batched / oneAtATime; }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%.0f world-generations/s batched, %.0f one at a time, %.1fx the speed", batched, oneAtATime, speedUp());
+        }
+
+        private Throughput(double batched, double oneAtATime)
+        {
+            this.batched = batched;
+            this.oneAtATime = oneAtATime;
+        }
+
+        private final double batched;
+        private final double oneAtATime;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private ////////////////////////////////////////////////////////////////////////////////////////////////////
+    ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    // Member fields //////////////////////////////////////////////////////////////////////////////////////////////
+    private final int rows;
+    private final int columns;
+    private final int width;       // columns, plus the frame either side
+    private long[] cells;
+    private long[] nextCells;
+    private int lanesInUse;
+    private long generationsEvolved;
+    private long evolvingNanos;
+
+    // Constructors ///////////////////////////////////////////////////////////////////////////////////////////////
+    private WorldBatch(int rows, int columns)
+    {
+        if (rows < 1 || columns < 1) throw new IllegalArgumentException("A batch needs room for a cell: " + rows + " x " + columns);
+
+        this.rows = rows;
+        this.columns = columns;
+        this.width = columns + 2 * FRAME;
+        cells = new long[(rows + 2 * FRAME) * width];
+        nextCells = new long[cells.length];
+    }
+
+    private void add(int lane, World world)
+    {
+        BoundingBox extent = world.boundingBox();
+        if (!extent.isEmpty() && (extent.northMostRow < 0 || extent.southMostRow >= rows || extent.westMostColumn < 0 || extent.eastMostColumn >= columns))
+            throw new IllegalArgumentException("World " + lane + " does not fit within " + rows + " x " + columns + " cells");
+
+        long mask = maskOf(lane);
+        for (long cellKey : world.sortedCellKeys())
+            cells[indexOf(CellKeys.rowOf(cellKey), CellKeys.columnOf(cellKey))] |= mask;
+    }
+
+    private static void evolveOneAtATime(int rows, int columns, List<World> worlds, int generations)
+    {
+        Location northWestCorner = new Location(0, 0);
+        Location southEastCorner = new Location(rows - 1, columns - 1);
+        for (World world : worlds)
+            for (int generation = 0; generation < generations; generation++)
+                world = world.regionAfter(1, northWestCorner, southEastCorner);
+    }
+
+    private int indexOf(int row, int column)
+    {
+        return (row + FRAME) * width + column + FRAME;
+    }
+
+    private static long maskOf(int lane)
+    {
+        if (lane < 0 || lane >= MAX_LANES) throw new IndexOutOfBoundsException("No lane " + lane + " of " + MAX_LANES);
+        return 1L << lane;
+    }
+
+    // Constants //////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final int FRAME = 1;
+}
@@ -0,0 +1,129 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveEvolutionTest
+{
+    @Test
+    public void given_soup_when_it_is_evolved_adaptively_then_it_switches_to_the_dense_grid_and_matches_plain_evolution() throws Exception
+    {
+        World world = soup(new Random(5), 96, 0.5);
+        AdaptiveEvolution evolution = AdaptiveEvolution.of(world).samplingEvery(16);
+
+        World adaptive = evolution.run(300);
+
+        World plain = world;
+        for (int generation = 0; generation < 300; generation++) plain = plain.evolve();
+        assertEquals(plain, adaptive);
+        assertEquals(plain.births(), adaptive.births());
+        assertEquals(plain.deaths(), adaptive.deaths());
+        assertEquals(300, evolution.generation());
+        assertEquals(AdaptiveEvolution.Representation.DENSE, evolution.switches().get(0).to());
+        assertEquals(16, evolution.switches().get(0).generation());
+        assertFalse(Double.isNaN(evolution.switches().get(0).nanosPerGenerationAfter()));
+    }
+
+    @Test
+    public void given_still_lifes_when_they_are_evolved_adaptively_then_they_stay_sparse() throws Exception
+    {
+        List<Location> blocks = new ArrayList<>();
+        for (int row = 0; row < 64; row += 3)
+            for (int column = 0; column < 64; column += 3)
+            {
+                blocks.add(new Location(row, column));     blocks.add(new Location(row, column + 1));
+                blocks.add(new Location(row + 1, column)); blocks.add(new Location(row + 1, column + 1));
+            }
+        AdaptiveEvolution evolution = AdaptiveEvolution.of(World.withCellsAt(blocks)).samplingEvery(4);
+
+        evolution.run(40);
+
+        assertTrue(evolution.switches().isEmpty());
+        assertEquals(AdaptiveEvolution.Representation.SPARSE, evolution.representation());
+    }
+
+    @Test
+    public void given_soup_that_settles_down_when_it_is_evolved_adaptively_then_it_returns_to_the_sparse_trie() throws Exception
+    {
+        World world = soup(new Random(99), 32, 0.5);
+        AdaptiveEvolution evolution = AdaptiveEvolution.of(world).samplingEvery(8);
+
+        World adaptive = evolution.run(400);
+
+        World plain = world;
+        for (int generation = 0; generation < 400; generation++) plain = plain.evolve();
+        assertEquals(plain, adaptive);
+        assertEquals(plain.births(), adaptive.births());
+        assertEquals(plain.deaths(), adaptive.deaths());
+        assertEquals(2, evolution.switches().size());
+        assertEquals(AdaptiveEvolution.Representation.DENSE, evolution.switches().get(1).from());
+        assertEquals(AdaptiveEvolution.Representation.SPARSE, evolution.representation());
+    }
+
+    @Test
+    public void given_line_too_long_for_a_dense_grid_when_it_is_evolved_adaptively_then_it_stays_sparse() throws Exception
+    {
+        List<Location> line = new ArrayList<>();
+        for (int column = 0; column < 20_000; column++) line.add(new Location(0, column));
+        World world = World.withCellsAt(line);
+        AdaptiveEvolution evolution = AdaptiveEvolution.of(world).samplingEvery(1).limitingDenseGridsTo(50_000);
+
+        World adaptive = evolution.run(3);
+
+        assertEquals(world.evolve().evolve().evolve(), adaptive);
+        assertTrue(evolution.switches().isEmpty());
+        assertEquals(AdaptiveEvolution.Representation.SPARSE, evolution.representation());
+    }
+
+    @Test
+    public void given_line_when_it_is_evolved_adaptively_then_its_dense_grid_is_sized_by_its_length_not_its_area() throws Exception
+    {
+        List<Location> line = new ArrayList<>();
+        for (int column = 0; column < 20_000; column++) line.add(new Location(0, column));
+        AdaptiveEvolution evolution = AdaptiveEvolution.of(World.withCellsAt(line)).samplingEvery(1).limitingDenseGridsTo(100_000);
+
+        World adaptive = evolution.run(3);
+
+        World plain = World.withCellsAt(line).evolve().evolve().evolve();
+        assertEquals(AdaptiveEvolution.Representation.DENSE, evolution.representation());
+        assertEquals(plain, adaptive);
+        assertEquals(plain.births(), adaptive.births());
+        assertEquals(plain.deaths(), adaptive.deaths());
+    }
+
+    @Test
+    public void given_soup_whose_dense_grid_outgrows_its_limit_when_it_is_evolved_adaptively_then_it_returns_to_the_sparse_trie() throws Exception
+    {
+        World world = soup(new Random(5), 96, 0.5);
+        AdaptiveEvolution evolution = AdaptiveEvolution.of(world).samplingEvery(16).limitingDenseGridsTo(2_000);
+
+        World adaptive = evolution.run(300);
+
+        World plain = world;
+        for (int generation = 0; generation < 300; generation++) plain = plain.evolve();
+        assertEquals(plain, adaptive);
+        assertEquals(plain.births(), adaptive.births());
+        assertEquals(plain.deaths(), adaptive.deaths());
+        assertEquals(AdaptiveEvolution.Representation.DENSE, evolution.switches().get(0).to());
+        assertEquals(AdaptiveEvolution.Representation.SPARSE, evolution.switches().get(1).to());
+        assertTrue(evolution.switches().get(1).generation() % 16 != 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void given_evolution_when_it_is_asked_to_never_sample_then_it_refuses() throws Exception
+    {
+        AdaptiveEvolution.of(World.empty()).samplingEvery(0);
+    }
+
+    private static World soup(Random random, int size, double density)
+    {
+        List<Location> locations = new ArrayList<>();
+        for (int row = 0; row < size; row++)
+            for (int column = 0; column < size; column++)
+                if (random.nextDouble() < density) locations.add(new Location(row - size / 2, column - size / 3));
+        return World.withCellsAt(locations);
+    }
+}
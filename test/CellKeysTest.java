@@ -0,0 +1,48 @@
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CellKeysTest
+{
+    @Test
+    public void given_a_location_when_it_is_packed_into_a_key_then_its_row_and_column_can_be_recovered() throws Exception
+    {
+        Location location = new Location(-123456, 789);
+
+        long key = CellKeys.keyOf(location);
+
+        assertEquals(-123456, CellKeys.rowOf(key));
+        assertEquals(789, CellKeys.columnOf(key));
+        assertEquals(location, CellKeys.locationOf(key));
+    }
+
+    @Test
+    public void given_keys_in_any_order_when_they_are_sorted_then_they_are_in_the_same_order_as_their_locations() throws Exception
+    {
+        Location[] locations = {
+            new Location(2, -1), new Location(-3, 7), new Location(2, 5),
+            new Location(0, 0), new Location(-3, -7), new Location(Integer.MAX_VALUE, Integer.MIN_VALUE) };
+        long[] keys = new long[locations.length];
+        for (int i = 0; i < locations.length; i++) keys[i] = CellKeys.keyOf(locations[i]);
+
+        CellKeys.sortRowMajor(keys);
+
+        for (int i = 1; i < keys.length; i++)
+            assertTrue(CellKeys.locationOf(keys[i - 1]).compareTo(CellKeys.locationOf(keys[i])) < 0);
+    }
+
+    @Test
+    public void given_many_random_keys_when_they_are_radix_sorted_then_they_are_in_unsigned_order() throws Exception
+    {
+        Random random = new Random(42);
+        long[] keys = new long[10_000];
+        for (int i = 0; i < keys.length; i++) keys[i] = CellKeys.keyOf(random.nextInt(2000) - 1000, random.nextInt());
+
+        CellKeys.sortRowMajor(keys);
+
+        for (int i = 1; i < keys.length; i++)
+            assertTrue(Long.compareUnsigned(keys[i - 1], keys[i]) <= 0);
+    }
+}
@@ -0,0 +1,115 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DenseGridTest
+{
+    @Test
+    public void given_world_when_it_is_held_densely_and_back_then_it_is_unchanged() throws Exception
+    {
+        World world = soup(new Random(3), -100, 150, 2000);
+
+        DenseGrid grid = DenseGrid.of(world);
+
+        assertEquals(world, grid.toWorld());
+        assertEquals(world.population(), grid.population());
+        assertEquals(world.cells().tileCount(), grid.tileCount());
+        assertEquals(world.northMostRow(), grid.extent().northMostRow);
+        assertEquals(world.southMostRow(), grid.extent().southMostRow);
+        assertEquals(world.westMostColumn(), grid.extent().westMostColumn);
+        assertEquals(world.eastMostColumn(), grid.extent().eastMostColumn);
+    }
+
+    @Test
+    public void given_soup_when_it_is_evolved_densely_then_each_generation_matches_the_sparse_one() throws Exception
+    {
+        World world = soup(new Random(11), -40, 80, 3000);
+        DenseGrid grid = DenseGrid.of(world);
+
+        for (int generation = 1; generation <= 200; generation++)
+        {
+            World next = world.evolve();
+            grid.evolve();
+
+            World dense = grid.toWorld();
+            assertEquals("generation " + generation, next, dense);
+            assertEquals(next.births(), grid.births());
+            assertEquals(next.deaths(), grid.deaths());
+            assertEquals(next.births(), dense.births());
+            assertEquals(next.deaths(), dense.deaths());
+            world = next;
+        }
+    }
+
+    @Test
+    public void given_glider_when_it_travels_past_the_margin_then_the_grid_makes_room_for_it() throws Exception
+    {
+        World glider = World.withCellsAt(new Location(0,1), new Location(1,2), new Location(2,0), new Location(2,1), new Location(2,2));
+        DenseGrid grid = DenseGrid.of(glider);
+        long area = grid.area();
+
+        for (int generation = 0; generation < 1000; generation++) grid.evolve();
+
+        assertEquals(5, grid.population());
+        assertEquals(250, grid.extent().northMostRow);
+        assertEquals(250, grid.extent().westMostColumn);
+        assertTrue(grid.area() > area);
+    }
+
+    @Test
+    public void given_long_line_when_it_is_held_densely_then_the_grid_is_no_taller_than_its_margins_need() throws Exception
+    {
+        List<Location> line = new ArrayList<>();
+        for (int column = 0; column < 100_000; column++) line.add(new Location(0, column));
+        World world = World.withCellsAt(line);
+
+        DenseGrid grid = DenseGrid.of(world);
+        grid.evolve();
+
+        assertEquals(world.evolve(), grid.toWorld());
+        assertTrue(grid.area() < 200L * 200_000);
+        assertEquals(grid.area() / Long.SIZE, DenseGrid.wordsFor(world.boundingBox()));
+    }
+
+    @Test
+    public void given_gliders_flying_apart_when_they_are_evolved_densely_then_the_words_each_generation_takes_are_known_beforehand() throws Exception
+    {
+        World gliders = World.withCellsAt(
+            new Location(0,1), new Location(1,2), new Location(2,0), new Location(2,1), new Location(2,2),
+            new Location(-20,-21), new Location(-21,-22), new Location(-22,-20), new Location(-22,-21), new Location(-22,-22));
+        DenseGrid grid = DenseGrid.of(gliders);
+        long words = grid.area() / Long.SIZE;
+
+        for (int generation = 0; generation < 1000; generation++)
+        {
+            long wordsToEvolve = grid.wordsToEvolve();
+            grid.evolve();
+            assertEquals(wordsToEvolve, grid.area() / Long.SIZE);
+        }
+        assertEquals(10, grid.population());
+        assertTrue(grid.area() / Long.SIZE > words);
+    }
+
+    @Test
+    public void given_empty_world_when_it_is_held_densely_then_it_stays_empty() throws Exception
+    {
+        DenseGrid grid = DenseGrid.of(World.empty());
+
+        grid.evolve();
+
+        assertTrue(grid.toWorld().isEmpty());
+        assertEquals(0, grid.tileCount());
+        assertTrue(grid.extent().isEmpty());
+    }
+
+    private static World soup(Random random, int from, int size, int cells)
+    {
+        List<Location> locations = new ArrayList<>();
+        for (int cell = 0; cell < cells; cell++) locations.add(new Location(from + random.nextInt(size), from + random.nextInt(size)));
+        return World.withCellsAt(locations);
+    }
+}
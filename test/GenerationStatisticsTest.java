@@ -0,0 +1,46 @@
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GenerationStatisticsTest
+{
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    @Test
+    public void given_recorded_generations_when_they_are_exported_then_each_has_a_line_of_csv() throws Exception
+    {
+        World blinker = World.withCellsAt(new Location(1,0), new Location(1,1), new Location(1,2));
+        GenerationStatistics statistics = GenerationStatistics.keepingLast(10);
+
+        statistics.record(0, blinker);
+        statistics.record(1, blinker.evolve());
+        statistics.record(2, World.empty());
+
+        assertEquals(
+            "generation,population,births,deaths,northMostRow,southMostRow,westMostColumn,eastMostColumn" + LINE_SEPARATOR +
+            "0,3,3,0,1,1,0,2" + LINE_SEPARATOR +
+            "1,3,2,2,0,2,1,1" + LINE_SEPARATOR +
+            "2,0,0,0,,,," + LINE_SEPARATOR, statistics.toCsv());
+    }
+
+    @Test
+    public void given_full_buffer_when_another_generation_is_recorded_then_the_oldest_gives_way() throws Exception
+    {
+        World world = World.withCellsAt(new Location(0,1), new Location(1,2), new Location(2,0), new Location(2,1), new Location(2,2));
+        GenerationStatistics statistics = GenerationStatistics.keepingLast(4);
+
+        for (int generation = 0; generation < 10; generation++, world = world.evolve())
+            statistics.record(generation, world);
+
+        assertEquals(4, statistics.size());
+        assertEquals(6, statistics.generation(0));
+        assertEquals(9, statistics.generation(3));
+        assertEquals(5, statistics.population(3));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void given_statistics_when_a_generation_beyond_those_held_is_asked_for_then_there_is_none() throws Exception
+    {
+        GenerationStatistics.keepingLast(4).population(0);
+    }
+}
@@ -0,0 +1,94 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LightConeTest
+{
+    @Test
+    public void given_soup_when_a_region_is_looked_ahead_at_then_it_matches_that_region_of_the_evolved_world() throws Exception
+    {
+        World world = soup(new Random(17), -20, 40, 500);
+        Location northWest = new Location(-3, 5);
+        Location southEast = new Location(9, 14);
+
+        World evolved = world;
+        for (int generations = 0; generations <= 25; generations++, evolved = evolved.evolve())
+            assertEquals(regionOf(evolved, northWest, southEast), LightCone.regionAfter(world, generations, northWest, southEast));
+    }
+
+    @Test
+    public void given_blinker_when_a_cell_is_looked_ahead_at_then_it_is_live_only_in_alternate_generations() throws Exception
+    {
+        World blinker = World.withCellsAt(new Location(1,0), new Location(1,1), new Location(1,2));
+
+        assertTrue(blinker.hasLiveCellAt(new Location(0,1), 1));
+        assertFalse(blinker.hasLiveCellAt(new Location(0,1), 2));
+        assertTrue(blinker.hasLiveCellAt(new Location(0,1), 101));
+    }
+
+    @Test
+    public void given_glider_far_from_a_cell_when_the_cell_is_looked_ahead_at_then_it_is_live_once_the_glider_arrives() throws Exception
+    {
+        World glider = World.withCellsAt(new Location(0,1), new Location(1,2), new Location(2,0), new Location(2,1), new Location(2,2));
+        Location target = new Location(27,26);
+
+        assertFalse(glider.hasLiveCellAt(target, 8));
+        assertTrue(glider.hasLiveCellAt(target, 100));
+    }
+
+    @Test
+    public void given_huge_world_when_a_small_region_is_looked_ahead_at_then_only_the_nearby_cells_matter() throws Exception
+    {
+        List<Location> locations = new ArrayList<>();
+        for (int block = 0; block < 20_000; block++)
+        {
+            int row = 1000 + 4 * (block / 100), column = 4 * (block % 100);
+            locations.add(new Location(row, column));     locations.add(new Location(row, column + 1));
+            locations.add(new Location(row + 1, column)); locations.add(new Location(row + 1, column + 1));
+        }
+        locations.add(new Location(0,0)); locations.add(new Location(0,1)); locations.add(new Location(0,2));
+        World world = World.withCellsAt(locations);
+
+        World region = world.regionAfter(3, new Location(-1,0), new Location(1,2));
+
+        assertEquals(World.withCellsAt(new Location(-1,1), new Location(0,1), new Location(1,1)), region);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void given_world_when_a_region_is_looked_at_in_the_past_then_it_refuses() throws Exception
+    {
+        World.empty().regionAfter(-1, new Location(0,0), new Location(1,1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void given_world_when_a_region_is_looked_at_with_its_north_west_corner_to_the_south_then_it_refuses() throws Exception
+    {
+        World.empty().regionAfter(1, new Location(2,0), new Location(1,1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void given_world_when_a_region_is_looked_at_with_its_north_west_corner_to_the_east_then_it_refuses() throws Exception
+    {
+        World.empty().regionAfter(1, new Location(0,2), new Location(1,1));
+    }
+
+    private static World regionOf(World world, Location northWest, Location southEast)
+    {
+        List<Location> locations = new ArrayList<>();
+        for (int row = northWest.row(); row <= southEast.row(); row++)
+            for (int column = northWest.column(); column <= southEast.column(); column++)
+                if (world.hasLiveCellAt(new Location(row, column))) locations.add(new Location(row, column));
+        return World.withCellsAt(locations);
+    }
+
+    private static World soup(Random random, int from, int size, int cells)
+    {
+        List<Location> locations = new ArrayList<>();
+        for (int cell = 0; cell < cells; cell++) locations.add(new Location(from + random.nextInt(size), from + random.nextInt(size)));
+        return World.withCellsAt(locations);
+    }
+}
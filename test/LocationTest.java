@@ -92,4 +92,12 @@ public class LocationTest
     {
         assertEquals(5,location.distanceFrom(location.south().south().south().east().east().east().east().east()));
     }
+
+    @Test
+    public void test_cell_two_cells_north_west_of_a_cell_on_the_other_side_of_the_origin_is_two_cells_away() throws Exception
+    {
+        Location nearOrigin = new Location(1,1);
+        assertEquals(2,nearOrigin.distanceFrom(nearOrigin.northWest().northWest()));
+        assertEquals(2,nearOrigin.northWest().northWest().distanceFrom(nearOrigin));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+import org.junit.Test;
+
+import java.util.*;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class PersistentCellSetTest
+{
+    @Test
+    public void given_empty_set_when_a_tile_is_added_then_only_that_tile_is_occupied() throws Exception
+    {
+        long tileKey = Tiles.tileKeyOf(-20, 35);
+
+        PersistentCellSet set = PersistentCellSet.EMPTY.withTile(tileKey, 0b1011L);
+
+        assertEquals(0b1011L, set.tileAt(tileKey));
+        assertEquals(0L, set.tileAt(Tiles.tileKeyOf(20, 35)));
+        assertEquals(3, set.population());
+        assertEquals(1, set.tileCount());
+        assertTrue(PersistentCellSet.EMPTY.isEmpty());
+    }
+
+    @Test
+    public void given_set_of_cells_when_asked_about_a_cell_then_it_answers_whether_that_cell_is_live() throws Exception
+    {
+        PersistentCellSet set = PersistentCellSet.EMPTY
+            .withTile(Tiles.tileKeyOf(-9, 17), Tiles.maskOf(-9, 17) | Tiles.maskOf(-10, 16));
+
+        assertTrue(set.contains(-9, 17));
+        assertTrue(set.contains(-10, 16));
+        assertFalse(set.contains(-9, 16));
+    }
+
+    @Test
+    public void given_the_same_tiles_added_in_different_orders_when_sets_are_compared_then_they_are_equal() throws Exception
+    {
+        List<Long> tileKeys = new ArrayList<>();
+        for (int row = -30; row < 30; row++) tileKeys.add(CellKeys.keyOf(row, row * 7));
+
+        PersistentCellSet set = PersistentCellSet.EMPTY;
+        for (long tileKey : tileKeys) set = set.withTile(tileKey, tileKey | 1);
+        Collections.shuffle(tileKeys, new Random(7));
+        PersistentCellSet sameSet = PersistentCellSet.EMPTY;
+        for (long tileKey : tileKeys) sameSet = sameSet.withTile(tileKey, tileKey | 1);
+
+        assertEquals(set, sameSet);
+        assertEquals(set.hashCode(), sameSet.hashCode());
+    }
+
+    @Test
+    public void given_set_when_all_its_tiles_are_emptied_then_it_is_the_empty_set() throws Exception
+    {
+        PersistentCellSet set = PersistentCellSet.EMPTY;
+        for (int tile = 0; tile < 1000; tile++) set = set.withTile(CellKeys.keyOf(tile, -tile), 1L << (tile % 64));
+        for (int tile = 0; tile < 1000; tile++) set = set.withTile(CellKeys.keyOf(tile, -tile), 0L);
+
+        assertEquals(PersistentCellSet.EMPTY, set);
+        assertEquals(0, set.population());
+        assertEquals(0, set.tileCount());
+    }
+
+    @Test
+    public void given_random_additions_and_removals_when_tiles_are_looked_up_then_they_match_a_map_of_tiles() throws Exception
+    {
+        Random random = new Random(42);
+        Map<Long, Long> expected = new HashMap<>();
+        PersistentCellSet set = PersistentCellSet.EMPTY;
+        for (int change = 0; change < 20_000; change++)
+        {
+            long tileKey = CellKeys.keyOf(random.nextInt(100) - 50, random.nextInt(100) - 50);
+            long occupancy = random.nextInt(3) == 0 ? 0L : random.nextLong();
+            set = set.withTile(tileKey, occupancy);
+            if (occupancy == 0) expected.remove(tileKey); else expected.put(tileKey, occupancy);
+        }
+
+        Map<Long, Long> actual = new HashMap<>();
+        set.forEachTile(actual::put);
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), set.tileCount());
+        assertEquals(expected.values().stream().mapToInt(Long::bitCount).sum(), set.population());
+    }
+
+    @Test
+    public void given_set_when_one_tile_changes_then_the_new_set_shares_all_but_one_path_of_nodes_with_it() throws Exception
+    {
+        PersistentCellSet set = PersistentCellSet.EMPTY;
+        for (int tile = 0; tile < 5000; tile++) set = set.withTile(CellKeys.keyOf(tile / 100, tile % 100), 1L);
+        PersistentCellSet changedSet = set.withTile(CellKeys.keyOf(7, 7), 3L);
+
+        int nodesOfOneSet = PersistentCellSet.distinctNodeCount(asList(set));
+        int nodesOfBothSets = PersistentCellSet.distinctNodeCount(asList(set, changedSet));
+
+        assertTrue(nodesOfBothSets - nodesOfOneSet <= 4);
+    }
+}
@@ -0,0 +1,138 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.rangeClosed;
+import static org.junit.Assert.*;
+
+public class PipelineTest
+{
+    private static final World BLINKER = World.withCellsAt(new Location(1,0), new Location(1,1), new Location(1,2));
+    private static final World GLIDER = World.withCellsAt(
+        new Location(0,1), new Location(1,2), new Location(2,0), new Location(2,1), new Location(2,2));
+
+    @Test
+    public void given_pipeline_when_it_runs_then_it_returns_the_world_evolved_that_many_times() throws Exception
+    {
+        World world = Pipeline.of(GLIDER, (generation, text) -> {}, (generation, saved) -> {}).run(40);
+
+        World expected = GLIDER;
+        for (int generation = 0; generation < 40; generation++) expected = expected.evolve();
+        assertEquals(expected, world);
+    }
+
+    @Test
+    public void given_blocking_queues_when_pipeline_runs_then_every_generation_is_saved_in_order() throws Exception
+    {
+        List<Integer> saved = Collections.synchronizedList(new ArrayList<>());
+
+        Pipeline pipeline = Pipeline.of(GLIDER, (generation, text) -> {}, (generation, world) -> saved.add(generation))
+            .persistenceQueue(2, Pipeline.OverflowPolicy.BLOCK);
+        pipeline.run(100);
+
+        assertEquals(rangeClosed(0, 100).boxed().collect(toList()), saved);
+        assertEquals(101, pipeline.persistenceStatistics().processed());
+        assertEquals(0, pipeline.persistenceStatistics().discarded());
+        assertEquals(100, pipeline.evolutionStatistics().processed());
+    }
+
+    @Test
+    public void given_rendering_every_nth_generation_when_pipeline_runs_then_only_those_generations_are_shown() throws Exception
+    {
+        List<Integer> shown = Collections.synchronizedList(new ArrayList<>());
+        List<String> texts = Collections.synchronizedList(new ArrayList<>());
+
+        Pipeline.of(BLINKER, (generation, text) -> { shown.add(generation); texts.add(text); }, (generation, world) -> {})
+            .renderingEvery(5)
+            .renderingQueue(1, Pipeline.OverflowPolicy.BLOCK)
+            .run(20);
+
+        assertEquals(rangeClosed(0, 4).map(n -> 5 * n).boxed().collect(toList()), shown);
+        assertEquals(BLINKER.evolve().toString(), texts.get(1));
+    }
+
+    @Test
+    public void given_slow_store_when_frames_are_coalesced_then_the_simulation_is_not_held_up_and_the_last_generation_is_saved() throws Exception
+    {
+        List<Integer> saved = Collections.synchronizedList(new ArrayList<>());
+
+        Pipeline pipeline = Pipeline.of(GLIDER, (generation, text) -> {}, (generation, world) -> {
+                LockSupport.parkNanos(5_000_000);
+                saved.add(generation);
+            })
+            .persistenceQueue(1, Pipeline.OverflowPolicy.COALESCE);
+        pipeline.run(200);
+
+        assertTrue(saved.size() < 201);
+        assertEquals(Integer.valueOf(200), saved.get(saved.size() - 1));
+        assertEquals(201, saved.size() + pipeline.persistenceStatistics().discarded());
+    }
+
+    @Test
+    public void given_store_that_fails_when_pipeline_runs_then_the_failure_is_reported_after_the_run() throws Exception
+    {
+        Pipeline pipeline = Pipeline.of(GLIDER, (generation, text) -> {}, (generation, world) -> {
+                throw new IOException("disk full");
+            })
+            .persistenceQueue(1, Pipeline.OverflowPolicy.BLOCK);
+
+        try
+        {
+            pipeline.run(50);
+            fail("expected the store's failure to be reported");
+        }
+        catch (UncheckedIOException e)
+        {
+            assertEquals("disk full", e.getCause().getMessage());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void given_display_that_throws_an_error_when_pipeline_blocks_on_it_then_the_run_finishes_and_rethrows_it() throws Exception
+    {
+        Pipeline pipeline = Pipeline.of(GLIDER, (generation, text) -> {
+                throw new ExceptionInInitializerError("no font");
+            }, (generation, world) -> {})
+            .renderingQueue(1, Pipeline.OverflowPolicy.BLOCK);
+
+        try
+        {
+            pipeline.run(50);
+            fail("expected the display's error to be rethrown");
+        }
+        catch (ExceptionInInitializerError e)
+        {
+            assertEquals("no font", e.getMessage());
+        }
+        assertEquals(50, pipeline.evolutionStatistics().processed());
+        assertEquals(0, pipeline.renderingStatistics().processed());
+    }
+
+    @Test
+    public void given_pipeline_whose_store_failed_when_it_runs_again_then_the_new_run_starts_afresh() throws Exception
+    {
+        boolean[] diskFull = { true };
+        Pipeline pipeline = Pipeline.of(GLIDER, (generation, text) -> {}, (generation, world) -> {
+                if (diskFull[0]) throw new IOException("disk full");
+            })
+            .persistenceQueue(1, Pipeline.OverflowPolicy.BLOCK);
+        try
+        {
+            pipeline.run(10);
+            fail("expected the store's failure to be reported");
+        }
+        catch (UncheckedIOException expected) {}
+
+        diskFull[0] = false;
+        pipeline.run(20);
+
+        assertEquals(21, pipeline.persistenceStatistics().processed());
+        assertEquals(20, pipeline.evolutionStatistics().processed());
+    }
+}
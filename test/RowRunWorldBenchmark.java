@@ -0,0 +1,133 @@
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Times a tick of long lines, and of a field of blocks, held as runs, in a World and in a
+ * HashSet of Locations, and prints the three together with the heap each takes up. Not a
+ * test, so that timings never decide whether the build passes: run it by hand, on a quiet
+ * machine, with the classes of src and test on the class path.
+ *
+ * The HashSet is evolved as it would be by hand, counting the neighbours of each cell in a
+ * HashMap. Its times include the collisions of the hash of a Location, 31 * row + column,
+ * which lines a few rows apart make across their columns, since that is what holding such
+ * lines in a HashSet costs. The heap is measured as the growth of the used heap, after
+ * collecting garbage, while a copy of each is held, so it is only a rough guide.
+ */
+public class RowRunWorldBenchmark
+{
+    public static void main(String[] args)
+    {
+        compare("lines", () -> lines(LINES, SPACING, LENGTH));
+        compare("blocks", () -> blocks(BLOCK_ROWS, BLOCK_COLUMNS));
+    }
+
+    /**
+     * Each way of holding the cells is made from locations of its own, so that only the
+     * HashSet, which keeps them, is charged for them.
+     */
+    private static void compare(String pattern, Supplier<List<Location>> locations)
+    {
+        retainedBytes(() -> RowRunWorld.withCellsAt(locations.get()));
+        retainedBytes(() -> World.withCellsAt(locations.get()));
+        retainedBytes(() -> new HashSet<>(locations.get()));
+
+        System.out.printf("%s, %d cells: %d bytes as runs (%d estimated), %d in a World, %d in a HashSet%n",
+                          pattern, locations.get().size(),
+                          retainedBytes(() -> RowRunWorld.withCellsAt(locations.get())),
+                          RowRunWorld.withCellsAt(locations.get()).estimatedBytes(),
+                          retainedBytes(() -> World.withCellsAt(locations.get())),
+                          retainedBytes(() -> new HashSet<>(locations.get())));
+
+        for (int round = 1; round <= ROUNDS; round++)
+        {
+            long runNanos = nanosPerTick(RowRunWorld.withCellsAt(locations.get()), RowRunWorld::evolve);
+            long worldNanos = nanosPerTick(World.withCellsAt(locations.get()), World::evolve);
+            long hashSetNanos = nanosPerTick(new HashSet<>(locations.get()), RowRunWorldBenchmark::evolve);
+
+            System.out.printf("  round %d: %d ns per tick as runs, %d ns in a World (%.2fx), %d ns in a HashSet (%.2fx)%n",
+                              round, runNanos, worldNanos, (double) worldNanos / runNanos,
+                              hashSetNanos, (double) hashSetNanos / runNanos);
+        }
+    }
+
+    private static <T> long nanosPerTick(T cells, UnaryOperator<T> evolve)
+    {
+        long start = System.nanoTime();
+        for (int generation = 0; generation < GENERATIONS; generation++) cells = evolve.apply(cells);
+        return (System.nanoTime() - start) / GENERATIONS;
+    }
+
+    private static long retainedBytes(Supplier<Object> allocation)
+    {
+        long before = usedHeap();
+        Object held = allocation.get();
+        long retained = usedHeap() - before;
+        Objects.requireNonNull(held);
+        return retained;
+    }
+
+    /**
+     * Collects garbage until the used heap stops shrinking, or gives up after a few tries.
+     */
+    private static long usedHeap()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int collection = 0; collection < 10; collection++)
+        {
+            System.gc();
+            long stillUsed = runtime.totalMemory() - runtime.freeMemory();
+            if (stillUsed >= used) break;
+            used = stillUsed;
+        }
+        return used;
+    }
+
+    // Patterns ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static List<Location> lines(int count, int spacing, int length)
+    {
+        List<Location> locations = new ArrayList<>();
+        for (int line = 0; line < count; line++)
+            for (int column = 0; column < length; column++) locations.add(new Location(line * spacing, column));
+        return locations;
+    }
+
+    private static List<Location> blocks(int rows, int columns)
+    {
+        List<Location> locations = new ArrayList<>();
+        for (int row = 0; row < 3 * rows; row += 3)
+            for (int column = 0; column < 3 * columns; column += 3)
+            {
+                locations.add(new Location(row, column));     locations.add(new Location(row, column + 1));
+                locations.add(new Location(row + 1, column)); locations.add(new Location(row + 1, column + 1));
+            }
+        return locations;
+    }
+
+    // A HashSet of Locations, for comparison /////////////////////////////////////////////////////////////////////
+
+    private static Set<Location> evolve(Set<Location> cells)
+    {
+        Map<Location, Integer> neighbourCounts = new HashMap<>();
+        for (Location cell : cells)
+            for (Location neighbour : Arrays.asList(cell.northWest(), cell.north(), cell.northEast(), cell.west(),
+                                                    cell.east(), cell.southWest(), cell.south(), cell.southEast()))
+                neighbourCounts.merge(neighbour, 1, Integer::sum);
+
+        Set<Location> next = new HashSet<>();
+        neighbourCounts.forEach((location, count) -> {
+            if (count == 3 || (count == 2 && cells.contains(location))) next.add(location);
+        });
+        return next;
+    }
+
+    private static final int LINES = 20;
+    private static final int SPACING = 20;
+    private static final int LENGTH = 5000;
+    private static final int BLOCK_ROWS = 100;
+    private static final int BLOCK_COLUMNS = 100;
+    private static final int GENERATIONS = 3;
+    private static final int ROUNDS = 5;
+}
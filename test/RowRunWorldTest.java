@@ -0,0 +1,131 @@
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class RowRunWorldTest
+{
+    @Test
+    public void given_soup_when_it_evolves_as_runs_then_each_generation_matches_the_world() throws Exception
+    {
+        Random random = new Random(35);
+        List<Location> locations = new ArrayList<>();
+        for (int cell = 0; cell < 1500; cell++) locations.add(new Location(random.nextInt(60) - 30, random.nextInt(60) - 20));
+        World world = World.withCellsAt(locations);
+        RowRunWorld runs = RowRunWorld.withCellsAt(locations);
+
+        for (int generation = 1; generation <= 100; generation++)
+        {
+            world = world.evolve();
+            runs = runs.evolve();
+            assertEquals("generation " + generation, world, runs.toWorld());
+        }
+    }
+
+    @Test
+    public void given_long_lines_when_they_evolve_as_runs_then_they_match_the_world_and_stay_a_few_runs_per_row() throws Exception
+    {
+        World world = World.withCellsAt(lines(4, 20, 5000));
+        RowRunWorld runs = RowRunWorld.of(world);
+
+        for (int generation = 1; generation <= 12; generation++)
+        {
+            world = world.evolve();
+            runs = runs.evolve();
+            assertEquals("generation " + generation, world, runs.toWorld());
+        }
+        assertTrue(runs.runCount() < 10 * runs.rowCount());
+    }
+
+    @Test
+    public void given_runs_when_cells_are_looked_up_then_the_ends_of_each_run_are_found() throws Exception
+    {
+        RowRunWorld runs = RowRunWorld.withCellsAt(
+            new Location(-1,-3), new Location(-1,-2), new Location(-1,-1),
+            new Location(-1,4), new Location(-1,4), new Location(-1,5),
+            new Location(2,0));
+
+        assertEquals(2, runs.rowCount());
+        assertEquals(3, runs.runCount());
+        assertEquals(6, runs.population());
+        assertTrue(runs.hasLiveCellAt(new Location(-1,-3)));
+        assertTrue(runs.hasLiveCellAt(new Location(-1,-1)));
+        assertFalse(runs.hasLiveCellAt(new Location(-1,0)));
+        assertFalse(runs.hasLiveCellAt(new Location(-1,3)));
+        assertTrue(runs.hasLiveCellAt(new Location(-1,5)));
+        assertFalse(runs.hasLiveCellAt(new Location(-1,6)));
+        assertFalse(runs.hasLiveCellAt(new Location(0,0)));
+        assertTrue(runs.hasLiveCellAt(new Location(2,0)));
+    }
+
+    @Test
+    public void given_blinker_when_it_evolves_twice_as_runs_then_it_is_back_where_it_started() throws Exception
+    {
+        RowRunWorld blinker = RowRunWorld.withCellsAt(new Location(1,0), new Location(1,1), new Location(1,2));
+
+        assertEquals(RowRunWorld.withCellsAt(new Location(0,1), new Location(1,1), new Location(2,1)), blinker.evolve());
+        assertEquals(blinker, blinker.evolve().evolve());
+        assertTrue(RowRunWorld.empty().evolve().isEmpty());
+    }
+
+    @Test
+    public void given_lines_and_blocks_when_held_as_runs_then_they_take_far_less_memory_than_a_hash_set_of_locations() throws Exception
+    {
+        List<Location> lines = lines(20, 20, 5000);
+        List<Location> blocks = blocks(100, 100);
+
+        assertTrue(100 * RowRunWorld.withCellsAt(lines).estimatedBytes() < estimatedBytesOfHashSetOf(lines.size()));
+        assertTrue(5 * RowRunWorld.withCellsAt(blocks).estimatedBytes() < estimatedBytesOfHashSetOf(blocks.size()));
+    }
+
+    @Test
+    public void given_long_lines_when_they_evolve_as_runs_then_the_work_does_not_depend_on_their_length() throws Exception
+    {
+        RowRunWorld shortLines = RowRunWorld.withCellsAt(lines(4, 20, 100));
+        RowRunWorld longLines = RowRunWorld.withCellsAt(lines(4, 20, 100_000));
+
+        for (int generation = 1; generation <= 3; generation++)
+        {
+            shortLines = shortLines.evolve();
+            longLines = longLines.evolve();
+            assertEquals(shortLines.runCount(), longLines.runCount());
+            assertEquals(shortLines.breakpointsEvaluated(), longLines.breakpointsEvaluated());
+        }
+        assertEquals(0, RowRunWorld.withCellsAt(lines(4, 20, 100)).breakpointsEvaluated());
+    }
+
+    // Patterns ///////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static List<Location> lines(int count, int spacing, int length)
+    {
+        List<Location> locations = new ArrayList<>();
+        for (int line = 0; line < count; line++)
+            for (int column = 0; column < length; column++) locations.add(new Location(line * spacing, column));
+        return locations;
+    }
+
+    private static List<Location> blocks(int rows, int columns)
+    {
+        List<Location> locations = new ArrayList<>();
+        for (int row = 0; row < 3 * rows; row += 3)
+            for (int column = 0; column < 3 * columns; column += 3)
+            {
+                locations.add(new Location(row, column));     locations.add(new Location(row, column + 1));
+                locations.add(new Location(row + 1, column)); locations.add(new Location(row + 1, column + 1));
+            }
+        return locations;
+    }
+
+    // A HashSet of Locations, for comparison /////////////////////////////////////////////////////////////////////
+
+    /**
+     * On a 64 bit JVM with compressed references: a Location of 24 bytes and a HashMap node
+     * of 32 for each cell, plus a 4 byte slot in a table sized for a load factor of 0.75.
+     */
+    private static long estimatedBytesOfHashSetOf(int cells)
+    {
+        long tableSlots = Integer.highestOneBit(Math.max(1, (int) (cells / 0.75f)) - 1) << 1;
+        return cells * (24L + 32L) + 16 + 4 * tableSlots;
+    }
+}
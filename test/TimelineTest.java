@@ -0,0 +1,132 @@
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class TimelineTest
+{
+    @Test
+    public void given_timeline_when_a_later_generation_is_sought_then_it_is_the_world_evolved_that_many_times() throws Exception
+    {
+        Timeline timeline = Timeline.startingWith(soup(), 10);
+
+        assertEquals(evolutionsOf(soup(), 37).get(37), timeline.seek(37));
+        assertEquals(37, timeline.latestGeneration());
+    }
+
+    @Test
+    public void given_recorded_timeline_when_generations_are_sought_in_any_order_then_each_is_the_world_evolved_that_many_times() throws Exception
+    {
+        List<World> evolutions = evolutionsOf(soup(), 200);
+        Timeline timeline = Timeline.startingWith(soup(), 16);
+        timeline.seek(200);
+
+        Random random = new Random(3);
+        for (int seek = 0; seek < 300; seek++)
+        {
+            int generation = random.nextInt(201);
+            assertEquals(evolutions.get(generation), timeline.seek(generation));
+        }
+    }
+
+    @Test
+    public void given_recorded_timeline_when_generations_are_sought_in_any_order_then_each_has_the_births_and_deaths_of_its_generation() throws Exception
+    {
+        List<World> evolutions = evolutionsOf(soup(), 200);
+        Timeline timeline = Timeline.startingWith(soup(), 16);
+        timeline.seek(200);
+
+        Random random = new Random(5);
+        for (int seek = 0; seek < 300; seek++)
+        {
+            int generation = random.nextInt(201);
+            World world = timeline.seek(generation);
+            assertEquals(evolutions.get(generation).births(), world.births());
+            assertEquals(evolutions.get(generation).deaths(), world.deaths());
+        }
+    }
+
+    @Test
+    public void given_generation_reached_by_seeking_backwards_when_it_evolves_then_it_becomes_the_next_generation() throws Exception
+    {
+        List<World> evolutions = evolutionsOf(soup(), 40);
+        Timeline timeline = Timeline.startingWith(soup(), 32);
+        timeline.seek(40);
+        timeline.seek(39);
+
+        World world = timeline.seek(36);
+
+        assertEquals(evolutions.get(37), world.evolve());
+        assertEquals(evolutions.get(38), world.evolve().evolve());
+    }
+
+    @Test
+    public void given_timeline_that_spills_old_segments_when_they_are_sought_then_they_are_read_back() throws Exception
+    {
+        Path spillDirectory = Files.createTempDirectory("timeline");
+        try
+        {
+            List<World> evolutions = evolutionsOf(soup(), 100);
+            try (Timeline timeline = Timeline.startingWith(soup(), 8, spillDirectory, 2))
+            {
+                timeline.seek(100);
+
+                assertTrue(timeline.bytesInMemory() < timeline.bytesPerGeneration() * 101);
+                try (Stream<Path> files = Files.list(spillDirectory)) { assertTrue(files.count() > 0); }
+                for (int generation = 100; generation >= 0; generation -= 7)
+                {
+                    World world = timeline.seek(generation);
+                    assertEquals(evolutions.get(generation), world);
+                    assertEquals(evolutions.get(generation).births(), world.births());
+                }
+            }
+            try (Stream<Path> files = Files.list(spillDirectory)) { assertEquals(0, files.count()); }
+        }
+        finally
+        {
+            Files.delete(spillDirectory);
+        }
+    }
+
+    @Test
+    public void given_timeline_of_a_glider_when_it_is_recorded_then_each_generation_takes_few_bytes() throws Exception
+    {
+        World glider = World.withCellsAt(
+            new Location(0,1), new Location(1,2), new Location(2,0), new Location(2,1), new Location(2,2));
+        Timeline timeline = Timeline.startingWith(glider);
+
+        timeline.seek(1000);
+
+        assertTrue(timeline.bytesPerGeneration() < 32);
+        assertTrue(timeline.lastSeekNanos() > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void given_timeline_when_a_generation_before_the_first_is_sought_then_it_refuses() throws Exception
+    {
+        Timeline.startingWith(World.empty()).seek(-1);
+    }
+
+    private static World soup()
+    {
+        Random random = new Random(11);
+        List<Location> locations = new ArrayList<>();
+        for (int cell = 0; cell < 300; cell++) locations.add(new Location(random.nextInt(30) - 15, random.nextInt(30) - 15));
+        return World.withCellsAt(locations);
+    }
+
+    private static List<World> evolutionsOf(World world, int generations)
+    {
+        List<World> evolutions = new ArrayList<>();
+        evolutions.add(world);
+        for (int generation = 1; generation <= generations; generation++)
+            evolutions.add(evolutions.get(generation - 1).evolve());
+        return evolutions;
+    }
+}
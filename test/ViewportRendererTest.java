@@ -0,0 +1,110 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ViewportRendererTest
+{
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    @Test
+    public void given_viewport_on_the_bounding_box_of_a_world_when_it_is_rendered_at_zoom_zero_then_it_looks_like_the_world() throws Exception
+    {
+        World loaf = World.withCellsAt(
+            new Location(2,3), new Location(2,4), new Location(3,2), new Location(3,5),
+            new Location(4,3), new Location(4,5), new Location(5,4));
+
+        String rendered = ViewportRenderer.withCacheOf(8).render(loaf, new Location(2,2), 4, 4, 0);
+
+        assertEquals(loaf.toString(), rendered);
+    }
+
+    @Test
+    public void given_blocks_with_different_populations_when_they_are_rendered_zoomed_out_then_each_shows_how_crowded_it_is() throws Exception
+    {
+        World world = World.withCellsAt(
+            new Location(0,2),
+            new Location(0,4), new Location(1,5),
+            new Location(0,6), new Location(0,7), new Location(1,6),
+            new Location(0,8), new Location(0,9), new Location(1,8), new Location(1,9));
+
+        String rendered = ViewportRenderer.withCacheOf(8).render(world, new Location(0,0), 1, 5, 1);
+
+        assertEquals("_:ooO" + LINE_SEPARATOR, rendered);
+    }
+
+    @Test
+    public void given_cells_far_apart_when_they_are_rendered_at_a_high_zoom_then_their_blocks_show_their_populations() throws Exception
+    {
+        World world = World.withCellsAt(new Location(-5000,-5000), new Location(3000,7000));
+
+        String rendered = ViewportRenderer.withCacheOf(8).render(world, new Location(-8192,-8192), 2, 2, 13);
+
+        assertEquals(
+            "._" + LINE_SEPARATOR +
+            "_." + LINE_SEPARATOR, rendered);
+    }
+
+    @Test
+    public void given_rendered_region_when_the_viewport_pans_across_it_then_it_is_served_entirely_from_the_cache() throws Exception
+    {
+        World world = soup(new Random(5), 64);
+        ViewportRenderer renderer = ViewportRenderer.withCacheOf(64);
+        renderer.render(world, new Location(0,0), 64, 64, 0);
+        long missesAfterFirstRender = renderer.cacheMisses();
+
+        for (int offset = 0; offset <= 32; offset += 4)
+            renderer.render(world, new Location(offset, offset), 32, 32, 0);
+
+        assertEquals(missesAfterFirstRender, renderer.cacheMisses());
+        assertTrue(renderer.cacheHits() > 0);
+    }
+
+    @Test
+    public void given_world_where_only_one_corner_changes_when_its_next_generation_is_rendered_then_only_that_corner_is_rendered_again() throws Exception
+    {
+        List<Location> locations = new ArrayList<>();
+        for (int row = 32; row < 64; row += 4)
+            for (int column = 32; column < 64; column += 4)
+            {
+                locations.add(new Location(row, column));     locations.add(new Location(row, column + 1));
+                locations.add(new Location(row + 1, column)); locations.add(new Location(row + 1, column + 1));
+            }
+        locations.add(new Location(2,1)); locations.add(new Location(2,2)); locations.add(new Location(2,3));
+        World world = World.withCellsAt(locations);
+        ViewportRenderer renderer = ViewportRenderer.withCacheOf(64);
+        renderer.render(world, new Location(0,0), 64, 64, 0);
+        long missesAfterFirstRender = renderer.cacheMisses();
+
+        String rendered = renderer.render(world.evolve(), new Location(0,0), 64, 64, 0);
+
+        assertEquals(missesAfterFirstRender + 1, renderer.cacheMisses());
+        assertEquals(ViewportRenderer.withCacheOf(64).render(world.evolve(), new Location(0,0), 64, 64, 0), rendered);
+    }
+
+    @Test
+    public void given_evolving_world_when_it_is_rendered_at_every_zoom_then_the_cached_output_matches_a_fresh_renderer() throws Exception
+    {
+        World world = soup(new Random(9), 48);
+        ViewportRenderer renderer = ViewportRenderer.withCacheOf(32);
+
+        for (int generation = 0; generation < 30; generation++, world = world.evolve())
+            for (int zoom = 0; zoom <= 5; zoom++)
+            {
+                Location topLeft = new Location(-40, -40);
+                assertEquals(
+                    ViewportRenderer.withCacheOf(32).render(world, topLeft, 20, 20, zoom),
+                    renderer.render(world, topLeft, 20, 20, zoom));
+            }
+    }
+
+    private static World soup(Random random, int size)
+    {
+        List<Location> locations = new ArrayList<>();
+        for (int cell = 0; cell < size * size / 3; cell++) locations.add(new Location(random.nextInt(size), random.nextInt(size)));
+        return World.withCellsAt(locations);
+    }
+}
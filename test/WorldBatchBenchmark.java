@@ -0,0 +1,39 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the throughput of 64 soups evolved as a batch with that of the same soups evolved
+ * one at a time, and prints whether the batch is the faster. Not a test, so that timings never
+ * decide whether the build passes: run it by hand, on a quiet machine, with the classes of src
+ * and test on the class path.
+ */
+public class WorldBatchBenchmark
+{
+    public static void main(String[] args)
+    {
+        Random random = new Random(7);
+        List<World> soups = new ArrayList<>();
+        for (int lane = 0; lane < WorldBatch.MAX_LANES; lane++) soups.add(soup(random));
+
+        for (int round = 1; round <= ROUNDS; round++)
+        {
+            WorldBatch.Throughput throughput = WorldBatch.throughputAgainstOneAtATime(ROWS, COLUMNS, soups, GENERATIONS);
+            System.out.printf("round %d: %s, %s%n", round, throughput, throughput.speedUp() > 1 ? "batch faster" : "BATCH NOT FASTER");
+        }
+    }
+
+    private static World soup(Random random)
+    {
+        List<Location> locations = new ArrayList<>();
+        for (int row = 4; row < ROWS - 4; row++)
+            for (int column = 4; column < COLUMNS - 4; column++)
+                if (random.nextBoolean()) locations.add(new Location(row, column));
+        return World.withCellsAt(locations);
+    }
+
+    private static final int ROWS = 24;
+    private static final int COLUMNS = 20;
+    private static final int GENERATIONS = 200;
+    private static final int ROUNDS = 5;
+}
@@ -0,0 +1,94 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class WorldBatchTest
+{
+    private static final int ROWS = 24;
+    private static final int COLUMNS = 20;
+
+    @Test
+    public void given_64_soups_when_they_are_evolved_as_a_batch_then_each_lane_evolves_as_its_own_bounded_world() throws Exception
+    {
+        Random random = new Random(64);
+        List<World> soups = new ArrayList<>();
+        for (int lane = 0; lane < WorldBatch.MAX_LANES; lane++) soups.add(soup(random));
+        WorldBatch batch = WorldBatch.of(ROWS, COLUMNS, soups);
+
+        for (int generation = 1; generation <= 30; generation++)
+        {
+            batch.evolve();
+            for (int lane = 0; lane < WorldBatch.MAX_LANES; lane++)
+            {
+                soups.set(lane, soups.get(lane).regionAfter(1, new Location(0,0), new Location(ROWS - 1, COLUMNS - 1)));
+                assertEquals("lane " + lane + ", generation " + generation, soups.get(lane), batch.lane(lane));
+                assertEquals(soups.get(lane).population(), batch.population(lane));
+            }
+        }
+    }
+
+    @Test
+    public void given_glider_in_one_lane_when_the_batch_evolves_then_the_other_lanes_stay_empty() throws Exception
+    {
+        World glider = World.withCellsAt(new Location(0,1), new Location(1,2), new Location(2,0), new Location(2,1), new Location(2,2));
+        List<World> worlds = new ArrayList<>(Collections.nCopies(4, World.empty()));
+        worlds.set(3, glider);
+        WorldBatch batch = WorldBatch.of(ROWS, COLUMNS, worlds);
+
+        batch.evolve(4);
+
+        assertEquals(1L << 3, batch.liveLanes());
+        assertEquals(World.withCellsAt(new Location(1,2), new Location(2,3), new Location(3,1), new Location(3,2), new Location(3,3)), batch.lane(3));
+        assertTrue(batch.lane(63).isEmpty());
+    }
+
+    @Test
+    public void given_glider_when_it_reaches_the_bounds_then_it_is_cut_off() throws Exception
+    {
+        World glider = World.withCellsAt(new Location(0,1), new Location(1,2), new Location(2,0), new Location(2,1), new Location(2,2));
+        WorldBatch batch = WorldBatch.of(6, 6, Collections.singletonList(glider));
+
+        batch.evolve(40);
+
+        assertEquals(World.withCellsAt(new Location(4,4), new Location(4,5), new Location(5,4), new Location(5,5)), batch.lane(0));
+    }
+
+    @Test
+    public void given_soups_when_throughput_is_compared_then_both_ways_are_measured() throws Exception
+    {
+        Random random = new Random(7);
+        List<World> soups = new ArrayList<>();
+        for (int lane = 0; lane < WorldBatch.MAX_LANES; lane++) soups.add(soup(random));
+
+        WorldBatch.Throughput throughput = WorldBatch.throughputAgainstOneAtATime(ROWS, COLUMNS, soups, 20);
+
+        assertTrue(throughput.toString(), throughput.batchedWorldGenerationsPerSecond() > 0);
+        assertTrue(throughput.toString(), throughput.oneAtATimeWorldGenerationsPerSecond() > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void given_world_outside_the_bounds_when_it_is_batched_then_it_is_refused() throws Exception
+    {
+        WorldBatch.of(ROWS, COLUMNS, Collections.singletonList(World.withCellsAt(new Location(-1,0))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void given_65_worlds_when_they_are_batched_then_they_are_refused() throws Exception
+    {
+        WorldBatch.of(ROWS, COLUMNS, Collections.nCopies(WorldBatch.MAX_LANES + 1, World.empty()));
+    }
+
+    private static World soup(Random random)
+    {
+        List<Location> locations = new ArrayList<>();
+        for (int row = 4; row < ROWS - 4; row++)
+            for (int column = 4; column < COLUMNS - 4; column++)
+                if (random.nextBoolean()) locations.add(new Location(row, column));
+        return World.withCellsAt(locations);
+    }
+}
@@ -4,6 +4,7 @@
 
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -393,6 +394,149 @@ public class WorldTest
             ,world.toString());
     }
 
+    @Test
+    public void given_two_worlds_with_the_same_cells_added_in_different_orders_when_they_are_compared_then_they_are_equal_and_have_the_same_hash() throws Exception
+    {
+        World world = World.withCellsAt(location(-3,7), location(2,-1), location(2,5), location(0,0));
+        World sameWorld = World.withCellsAt(location(0,0), location(2,5), location(-3,7), location(2,-1));
+
+        assertEquals(world, sameWorld);
+        assertEquals(world.hashCode(), sameWorld.hashCode());
+    }
+
+    @Test
+    public void given_two_worlds_with_the_same_population_but_different_cells_when_they_are_compared_then_they_are_not_equal() throws Exception
+    {
+        World world = World.withCellsAt(location(1,1), location(1,3));
+        World otherWorld = World.withCellsAt(location(1,0), location(1,4));
+
+        assertFalse(world.equals(otherWorld));
+    }
+
+    @Test
+    public void given_world_is_empty_when_its_text_representation_is_generated_then_it_is_empty() throws Exception
+    {
+        assertEquals("", World.empty().toString());
+    }
+
+    @Test
+    public void given_world_contains_cells_either_side_of_the_origin_when_its_text_representation_is_generated_then_it_is_correct() throws Exception
+    {
+        World world = World.withCellsAt(location(-1,-2), location(0,0), location(1,-1));
+
+        assertEquals(
+            "O__" + LINE_SEPARATOR +
+            "__O" + LINE_SEPARATOR +
+            "_O_" + LINE_SEPARATOR, world.toString());
+    }
+
+    @Test
+    public void given_mostly_stable_world_when_it_evolves_for_ten_thousand_generations_then_its_history_takes_little_more_room_than_one_generation() throws Exception
+    {
+        List<Location> blocks = rangeClosed(0, 499).boxed().flatMap( block ->
+            Stream.of(location(10 * (block / 25), 10 * (block % 25)), location(10 * (block / 25), 10 * (block % 25) + 1),
+                      location(10 * (block / 25) + 1, 10 * (block % 25)), location(10 * (block / 25) + 1, 10 * (block % 25) + 1)))
+            .collect(toList());
+        List<Location> blinker = asList(location(-5,0), location(-5,1), location(-5,2));
+        World world = World.withCellsAt(blocks, blinker);
+
+        List<PersistentCellSet> history = new ArrayList<>();
+        for (int generation = 0; generation < 10_000; generation++, world = world.evolve())
+            history.add(world.cells());
+
+        int nodesOfOneGeneration = PersistentCellSet.distinctNodeCount(history.subList(0, 1));
+        int nodesOfHistory = PersistentCellSet.distinctNodeCount(history);
+        assertTrue(nodesOfHistory <= 2 * nodesOfOneGeneration);
+    }
+
+    @Test
+    public void given_blinker_when_it_evolves_then_two_cells_are_born_and_two_die_and_its_population_stays_the_same() throws Exception
+    {
+        World blinker = World.withCellsAt(location(1,0), location(1,1), location(1,2));
+
+        World evolved = blinker.evolve();
+
+        assertEquals(3, evolved.population());
+        assertEquals(2, evolved.births());
+        assertEquals(2, evolved.deaths());
+    }
+
+    @Test
+    public void given_glider_when_it_evolves_then_its_bounding_box_follows_it() throws Exception
+    {
+        World glider = World.withCellsAt(location(0,1), location(1,2), location(2,0), location(2,1), location(2,2));
+
+        for (int generation = 0; generation < 100; generation++, glider = glider.evolve())
+        {
+            List<Location> cells = locations(glider, -10, 40);
+            assertEquals(cells.stream().mapToInt(Location::row).min().getAsInt(), glider.northMostRow());
+            assertEquals(cells.stream().mapToInt(Location::row).max().getAsInt(), glider.southMostRow());
+            assertEquals(cells.stream().mapToInt(Location::column).min().getAsInt(), glider.westMostColumn());
+            assertEquals(cells.stream().mapToInt(Location::column).max().getAsInt(), glider.eastMostColumn());
+        }
+        assertEquals(25, glider.northMostRow());
+        assertEquals(25, glider.westMostColumn());
+    }
+
+    @Test
+    public void given_blinker_on_the_edge_of_a_large_world_when_it_evolves_and_branches_then_only_the_changed_lines_are_counted_again() throws Exception
+    {
+        List<Location> cells = new ArrayList<>();
+        for (int row = 0; row < 300; row += 3)
+            for (int column = 0; column < 300; column += 3)
+                cells.addAll(asList(location(row,column), location(row,column+1), location(row+1,column), location(row+1,column+1)));
+        cells.addAll(asList(location(-6,10), location(-6,11), location(-6,12)));
+        World world = World.withCellsAt(cells.toArray(new Location[0]));
+        List<LineCounts> history = new ArrayList<>(asList(world.lineCounts()));
+        int nodesOfFirst = LineCounts.distinctNodeCount(history);
+
+        for (int generation = 1; generation <= 100; generation++)
+        {
+            World branch = world.evolve();
+            world = world.evolve();
+            history.add(branch.lineCounts());
+            history.add(world.lineCounts());
+            assertEquals(generation % 2 == 1 ? -7 : -6, world.northMostRow());
+            assertEquals(generation % 2 == 1 ? -7 : -6, branch.northMostRow());
+            assertEquals(0, world.westMostColumn());
+            assertEquals(298, world.southMostRow());
+        }
+        int pathOfOneRowAndOneColumn = 2 * (7 + 1);
+        assertTrue(LineCounts.distinctNodeCount(history) - nodesOfFirst <= 200 * pathOfOneRowAndOneColumn);
+    }
+
+    @Test
+    public void given_world_evolved_twice_over_when_it_is_asked_for_its_extent_then_both_next_generations_have_theirs() throws Exception
+    {
+        World blinker = World.withCellsAt(location(1,0), location(1,1), location(1,2));
+
+        World first = blinker.evolve();
+        World second = blinker.evolve();
+
+        assertEquals(0, first.northMostRow());
+        assertEquals(0, second.northMostRow());
+        assertEquals(2, second.southMostRow());
+        assertEquals(1, second.westMostColumn());
+        assertEquals(1, second.eastMostColumn());
+        assertEquals(1, second.evolve().northMostRow());
+        assertEquals(1, first.evolve().northMostRow());
+    }
+
+    @Test(expected = java.util.NoSuchElementException.class)
+    public void given_world_is_empty_when_it_is_asked_for_its_extent_then_it_has_none() throws Exception
+    {
+        World.empty().northMostRow();
+    }
+
+    private static List<Location> locations(World world, int from, int to)
+    {
+        return
+            rangeClosed(from,to).boxed().flatMap( row ->
+                rangeClosed(from,to).boxed().map( col -> location(row,col) ))
+            .filter(world::hasLiveCellAt)
+            .collect(toList());
+    }
+
     private static World world(Cell[][] grid){
         return World.withCellsAt(locations(grid));
     }